@@ -0,0 +1,176 @@
+package systems.helius.commons.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Generates the introspection metadata of the classes annotated with
+ * <code>systems.helius.commons.annotations.Introspectable</code>.
+ * <p>
+ * For each annotated class, a class named after its binary name with the <code>_HeliusMetadata</code> suffix,
+ * such as <code>Outer$Inner_HeliusMetadata</code> for a nested class, is generated in the same package.
+ * It implements <code>systems.helius.commons.reflection.GeneratedMetadata</code> and reads the instance fields
+ * declared by the annotated class with plain field accesses, in declaration order.
+ * It records the names and erased types of these fields, so that the metadata of a class changed since is not used.
+ * </p>
+ * <p>
+ * Classes that declare private instance fields, or that cannot be accessed from their own package,
+ * are skipped with a warning: their fields remain read through reflection at runtime.
+ * </p>
+ */
+@SupportedAnnotationTypes(IntrospectableProcessor.ANNOTATION)
+public class IntrospectableProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "systems.helius.commons.annotations.Introspectable";
+    static final String SUFFIX = "_HeliusMetadata";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                List<VariableElement> fields = instanceFields(type);
+                if (fields != null)
+                    generate(type, fields);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the instance fields declared by the type in declaration order, or null if they cannot be read by generated code.
+     */
+    private List<VariableElement> instanceFields(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.ENUM) {
+            warn(type, "only classes and enums can be introspected without reflection");
+            return null;
+        }
+        for (Element enclosing = type; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            NestingKind nesting = ((TypeElement) enclosing).getNestingKind();
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE) || nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) {
+                warn(type, "the class cannot be accessed from its package");
+                return null;
+            }
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC))
+                continue;
+            if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                warn(type, "the field " + field.getSimpleName() + " is private");
+                return null;
+            }
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    private void warn(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "No introspection metadata generated for " + type.getQualifiedName() + ": " + reason, type);
+    }
+
+    private void generate(TypeElement type, List<VariableElement> fields) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        // The binary name keeps nested classes apart from top-level classes named with an underscore
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String typeName = type.getQualifiedName().toString();
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (var out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty())
+                    out.println("package " + packageName + ";");
+                out.println();
+                out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+                out.println("public final class " + simpleName + " implements systems.helius.commons.reflection.GeneratedMetadata {");
+                out.println("    private static final java.util.List<String> FIELD_NAMES = java.util.List.of(" + nameList(fields) + ");");
+                out.println("    private static final java.util.List<Class<?>> FIELD_TYPES = java.util.List.of(" + typeList(fields) + ");");
+                out.println();
+                out.println("    public " + simpleName + "() {}");
+                out.println();
+                out.println("    @Override");
+                out.println("    public Class<?> type() {");
+                out.println("        return " + typeName + ".class;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public java.util.List<String> fieldNames() {");
+                out.println("        return FIELD_NAMES;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public java.util.List<Class<?>> fieldTypes() {");
+                out.println("        return FIELD_TYPES;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public void extract(Object target, java.lang.reflect.Field[] fields,");
+                out.println("                        systems.helius.commons.reflection.accessors.ContentSink sink) {");
+                if (!fields.isEmpty())
+                    out.println("        var t = (" + typeName + ") target;");
+                for (int i = 0; i < fields.size(); i++) {
+                    out.println("        systems.helius.commons.reflection.FieldExtractor.push(sink, t."
+                            + fields.get(i).getSimpleName() + ", fields[" + i + "]);");
+                }
+                out.println("    }");
+                out.println("}");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not generate the introspection metadata of " + typeName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private static String nameList(List<VariableElement> fields) {
+        var names = new StringBuilder();
+        for (VariableElement field : fields) {
+            if (names.length() > 0)
+                names.append(", ");
+            names.append('"').append(field.getSimpleName()).append('"');
+        }
+        return names.toString();
+    }
+
+    private String typeList(List<VariableElement> fields) {
+        var types = new StringBuilder();
+        for (VariableElement field : fields) {
+            if (types.length() > 0)
+                types.append(", ");
+            types.append(erasedName(field.asType())).append(".class");
+        }
+        return types.toString();
+    }
+
+    /**
+     * @return the canonical name of the erasure of the type, without its type annotations.
+     */
+    private String erasedName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        return switch (erased.getKind()) {
+            case ARRAY -> erasedName(((ArrayType) erased).getComponentType()) + "[]";
+            case DECLARED -> ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+            default -> erased.getKind().name().toLowerCase(Locale.ROOT); // The primitives
+        };
+    }
+}
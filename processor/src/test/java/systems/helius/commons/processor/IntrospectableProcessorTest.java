@@ -0,0 +1,165 @@
+package systems.helius.commons.processor;
+
+import org.junit.jupiter.api.Test;
+import systems.helius.commons.reflection.GeneratedMetadata;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntrospectableProcessorTest {
+
+    private static final class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        Source(String className, String code) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    private record Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, ClassLoader classes) {
+        GeneratedMetadata metadata(String name) throws ReflectiveOperationException {
+            return (GeneratedMetadata) classes.loadClass(name).getConstructor().newInstance();
+        }
+
+        List<String> warnings() {
+            List<String> warnings = new ArrayList<>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+                if (diagnostic.getKind() == Diagnostic.Kind.WARNING)
+                    warnings.add(diagnostic.getMessage(null));
+            }
+            return warnings;
+        }
+    }
+
+    /**
+     * Compile a single source file with the processor, against the classpath of the tests.
+     */
+    private static Compilation compile(String className, String code) throws IOException {
+        Path out = Files.createTempDirectory("introspectable-processor");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(out));
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(out));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-classpath", System.getProperty("java.class.path")), null, List.of(new Source(className, code)));
+            task.setProcessors(List.of(new IntrospectableProcessor()));
+            boolean success = task.call();
+            var classes = new URLClassLoader(new URL[]{out.toUri().toURL()}, IntrospectableProcessorTest.class.getClassLoader());
+            return new Compilation(success, diagnostics.getDiagnostics(), classes);
+        }
+    }
+
+    @Test
+    void WhenProcess_GivenNestedClass_ThenNameTheMetadataAfterItsBinaryName() throws Exception {
+        Compilation compilation = compile("sample.Outer", """
+                package sample;
+                public class Outer {
+                    @systems.helius.commons.annotations.Introspectable
+                    public static class Inner {
+                        String name;
+                        protected int count;
+                        static String ignored;
+                    }
+                }
+                """);
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+
+        GeneratedMetadata metadata = compilation.metadata("sample.Outer$Inner" + IntrospectableProcessor.SUFFIX);
+        Class<?> inner = compilation.classes().loadClass("sample.Outer$Inner");
+        assertEquals(inner, metadata.type());
+        assertEquals(List.of("name", "count"), metadata.fieldNames());
+        assertEquals(List.of(String.class, int.class), metadata.fieldTypes());
+
+        Object instance = inner.getConstructor().newInstance();
+        Field[] fields = {inner.getDeclaredField("name"), inner.getDeclaredField("count")};
+        fields[0].setAccessible(true);
+        fields[0].set(instance, "Hello");
+        List<Object> values = new ArrayList<>();
+        metadata.extract(instance, fields, (value, field) -> values.add(value));
+        assertEquals(List.of("Hello", 0), values);
+    }
+
+    @Test
+    void WhenProcess_GivenNestedAndTopLevelClassesWithMatchingNames_ThenKeepTheirMetadataApart() throws Exception {
+        Compilation compilation = compile("sample.Outer", """
+                package sample;
+                public class Outer {
+                    @systems.helius.commons.annotations.Introspectable
+                    public static class Inner {
+                        String nested;
+                    }
+                }
+                @systems.helius.commons.annotations.Introspectable
+                class Outer_Inner {
+                    String topLevel;
+                }
+                """);
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+
+        GeneratedMetadata nested = compilation.metadata("sample.Outer$Inner" + IntrospectableProcessor.SUFFIX);
+        assertEquals(compilation.classes().loadClass("sample.Outer$Inner"), nested.type());
+        assertEquals(List.of("nested"), nested.fieldNames());
+        GeneratedMetadata topLevel = compilation.metadata("sample.Outer_Inner" + IntrospectableProcessor.SUFFIX);
+        assertEquals(compilation.classes().loadClass("sample.Outer_Inner"), topLevel.type());
+        assertEquals(List.of("topLevel"), topLevel.fieldNames());
+    }
+
+    @Test
+    void WhenProcess_GivenPrivateField_ThenSkipTheClassWithAWarning() throws Exception {
+        Compilation compilation = compile("sample.Secret", """
+                package sample;
+                @systems.helius.commons.annotations.Introspectable
+                public class Secret {
+                    String shown;
+                    private String hidden;
+                }
+                """);
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+        assertTrue(compilation.warnings().stream().anyMatch(warning -> warning.contains("hidden")), compilation.warnings().toString());
+        assertThrows(ClassNotFoundException.class,
+                () -> compilation.classes().loadClass("sample.Secret" + IntrospectableProcessor.SUFFIX));
+    }
+
+    @Test
+    void WhenProcess_GivenGenericClass_ThenRecordTheErasedFieldTypes() throws Exception {
+        Compilation compilation = compile("sample.Box", """
+                package sample;
+                import java.util.List;
+                import java.util.Map;
+                @systems.helius.commons.annotations.Introspectable
+                public class Box<T extends Number, L extends List<T>> {
+                    T value;
+                    L values;
+                    T[] array;
+                    Map<String, ? extends T> byName;
+                }
+                """);
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+
+        GeneratedMetadata metadata = compilation.metadata("sample.Box" + IntrospectableProcessor.SUFFIX);
+        assertEquals(List.of("value", "values", "array", "byName"), metadata.fieldNames());
+        assertEquals(List.of(Number.class, List.class, Number[].class, Map.class), metadata.fieldTypes());
+        Class<?> box = compilation.classes().loadClass("sample.Box");
+        for (int i = 0; i < metadata.fieldNames().size(); i++) {
+            assertEquals(box.getDeclaredField(metadata.fieldNames().get(i)).getType(), metadata.fieldTypes().get(i));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -20,6 +21,8 @@ public class JmhRunner {
         Options opt = new OptionsBuilder()
                 .include(BeanIntrospectorBenchmark.class.getName())
                 .include(ClassInspectorBenchmark.class.getName())
+                // Equivalent of -prof gc: reports the allocation rate per operation
+                .addProfiler(GCProfiler.class)
                 .build();
 
         new Runner(opt).run();
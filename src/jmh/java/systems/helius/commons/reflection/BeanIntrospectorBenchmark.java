@@ -2,10 +2,12 @@ package systems.helius.commons.reflection;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import systems.helius.commons.exceptions.IntrospectionException;
 import systems.helius.commons.types.School;
 import systems.helius.commons.types.SchoolGenerator;
 
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 @BenchmarkMode(Mode.All)
@@ -18,15 +20,40 @@ public class BeanIntrospectorBenchmark {
     private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
     @Benchmark
-    public void getAllFieldsHierarchical_noCache(Basic inspector, ExecutionPlan plan, Blackhole bh) throws IllegalAccessException {
+    public void getAllFieldsHierarchical_noCache(Basic inspector, ExecutionPlan plan, Blackhole bh) throws IntrospectionException {
         bh.consume(inspector.introspector.seek(String.class, plan.school, LOOKUP));
     }
 
     @Benchmark
-    public void getAllFieldsHierarchical_cached(Caching inspector, ExecutionPlan plan, Blackhole bh) throws IllegalAccessException {
+    public void getAllFieldsHierarchical_cached(Caching inspector, ExecutionPlan plan, Blackhole bh) throws IntrospectionException {
         bh.consume(inspector.introspector.seek(String.class, plan.school, LOOKUP));
     }
 
+    @Benchmark
+    public void parallelSeek_cached(Caching inspector, Parallelism parallelism, ExecutionPlan plan, Blackhole bh) throws IntrospectionException {
+        bh.consume(inspector.introspector.parallelSeek(String.class, plan.school, LOOKUP, parallelism.pool));
+    }
+
+    @Benchmark
+    public void walk_cached(Caching inspector, SteadyState plan, Blackhole bh) throws IntrospectionException {
+        inspector.introspector.walk(String.class, plan.school, LOOKUP, bh::consume);
+    }
+
+    @Benchmark
+    public void count_cached(Caching inspector, SteadyState plan, Blackhole bh) throws IntrospectionException {
+        bh.consume(inspector.introspector.count(String.class, plan.school, LOOKUP));
+    }
+
+    @Benchmark
+    public void count_generatedExtractors(GeneratedExtractors inspector, SteadyState plan, Blackhole bh) throws IntrospectionException {
+        bh.consume(inspector.introspector.count(String.class, plan.school, LOOKUP));
+    }
+
+    @Benchmark
+    public void count_compiledPlan(CompiledPlan compiled, SteadyState plan, Blackhole bh) throws IntrospectionException {
+        bh.consume(compiled.plan.count(plan.school));
+    }
+
     @State(Scope.Thread)
     public static class ExecutionPlan {
         private static final SchoolGenerator schoolGenerator = new SchoolGenerator();
@@ -44,6 +71,24 @@ public class BeanIntrospectorBenchmark {
         }
     }
 
+    /**
+     * The same school is walked over and over, so that the allocations measured by the GC profiler
+     * are those of the traversal alone.
+     */
+    @State(Scope.Thread)
+    public static class SteadyState {
+        School school;
+        @Param({"100", "1000"})
+        int nStudents;
+
+        @Setup(Level.Trial)
+        public void setupSchool() {
+            SchoolGenerator schoolGenerator = new SchoolGenerator();
+            school = schoolGenerator.generate();
+            schoolGenerator.addStudents(school, nStudents);
+        }
+    }
+
     @State(Scope.Benchmark)
     public static class Caching {
         BeanIntrospector introspector;
@@ -55,6 +100,30 @@ public class BeanIntrospectorBenchmark {
         }
     }
 
+    /**
+     * Reads fields through generated hidden classes instead of VarHandles. Compare with count_cached.
+     */
+    @State(Scope.Benchmark)
+    public static class GeneratedExtractors {
+        BeanIntrospector introspector;
+
+        @Setup(Level.Iteration)
+        public void initialize() {
+            var settings = new IntrospectionSettingsBuilder().withExtractorGenerationThreshold(1).build();
+            introspector = new BeanIntrospector(settings, new CachingClassInspector());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CompiledPlan {
+        SearchPlan<String> plan;
+
+        @Setup(Level.Iteration)
+        public void compile() throws IntrospectionException {
+            plan = new BeanIntrospector(new CachingClassInspector()).compile(String.class, School.class, LOOKUP);
+        }
+    }
+
     @State(Scope.Benchmark)
     public static class Basic {
         BeanIntrospector introspector;
@@ -65,4 +134,22 @@ public class BeanIntrospectorBenchmark {
             introspector = new BeanIntrospector(new ClassInspector());
         }
     }
+
+    @State(Scope.Benchmark)
+    public static class Parallelism {
+        @Param({"1", "2", "4", "8"})
+        int nThreads;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void createPool() {
+            pool = new ForkJoinPool(nThreads);
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdownPool() {
+            pool.shutdown();
+        }
+    }
 }
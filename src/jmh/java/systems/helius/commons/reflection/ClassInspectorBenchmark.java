@@ -2,7 +2,9 @@ package systems.helius.commons.reflection;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import systems.helius.commons.types.*;
 
+import java.lang.invoke.MethodHandles;
 import java.util.concurrent.TimeUnit;
 
 @BenchmarkMode(Mode.All)
@@ -12,6 +14,8 @@ import java.util.concurrent.TimeUnit;
 @Measurement(time = 5, iterations = 5)
 public class ClassInspectorBenchmark {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     @Benchmark
     public void getAllFieldsHierarchical_noCache(Basic inspector, ExecutionPlan plan, Blackhole bh) {
         bh.consume(inspector.inspector.getAllFieldsHierarchical(plan.classToInspect));
@@ -22,6 +26,25 @@ public class ClassInspectorBenchmark {
         bh.consume(inspector.inspector.getAllFieldsHierarchical(plan.classToInspect));
     }
 
+    /**
+     * Every thread inspects the same classes at once on an inspector that has never seen them,
+     * as on the first requests served after a deployment.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(8)
+    @Warmup(iterations = 20, batchSize = 1)
+    @Measurement(iterations = 50, batchSize = 1)
+    public void coldStart_contended(ColdCaching inspector, Blackhole bh) throws IllegalAccessException {
+        for (Class<?> type : ColdCaching.CLASSES) {
+            bh.consume(inspector.inspector.getAllFieldsHierarchical(type));
+            bh.consume(inspector.inspector.getAllFieldsFlat(type));
+            bh.consume(inspector.inspector.getFieldPlan(type, LOOKUP));
+            bh.consume(inspector.inspector.mayContain(type, String.class));
+        }
+    }
+
     @State(Scope.Benchmark)
     public static class ExecutionPlan {
         @Param(value = {
@@ -57,6 +80,23 @@ public class ClassInspectorBenchmark {
         }
     }
 
+    /**
+     * A new inspector for every iteration, shared by all the threads.
+     */
+    @State(Scope.Benchmark)
+    public static class ColdCaching {
+        static final Class<?>[] CLASSES = {
+                Foo.class, DataClass.class, ChildClassA.class, ChildClassB.class, ComplexChild.class, School.class
+        };
+
+        CachingClassInspector inspector;
+
+        @Setup(Level.Iteration)
+        public void initialize() {
+            inspector = new CachingClassInspector();
+        }
+    }
+
     @State(Scope.Benchmark)
     public static class Basic {
         ClassInspector inspector;
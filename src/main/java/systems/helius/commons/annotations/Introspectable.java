@@ -0,0 +1,23 @@
+package systems.helius.commons.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a class for which the helius-commons-processor annotation processor generates introspection metadata at compile time.
+ * <p>
+ * The generated class, named after the binary name of the annotated one with the <code>_HeliusMetadata</code> suffix, reads the instance fields
+ * declared by the annotated class with plain field accesses. The {@link systems.helius.commons.reflection.ClassInspector}
+ * then reads these fields without creating any VarHandle, for callers that could have acquired a privileged lookup
+ * on the annotated class.
+ * Fields declared by superclasses are only covered if their own class is annotated.
+ * </p>
+ * <p>
+ * Since generated code can only read the fields it can see, no metadata is generated for classes that declare
+ * private instance fields or that are themselves private.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Introspectable {
+}
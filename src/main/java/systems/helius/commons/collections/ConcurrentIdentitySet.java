@@ -0,0 +1,128 @@
+package systems.helius.commons.collections;
+
+import java.util.*;
+
+/**
+ * A thread-safe set that uses object identity (==) instead of equals() to compare its elements.
+ * <p>
+ * Elements are distributed by identity hash code over independently locked stripes,
+ * so threads adding different elements rarely contend.
+ * Iterators are weakly consistent: they iterate over a snapshot of each stripe taken when it is reached.
+ * </p>
+ *
+ * @param <E> the type of elements
+ */
+public class ConcurrentIdentitySet<E> extends AbstractSet<E> {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Set<E>[] stripes;
+    private final int mask;
+
+    public ConcurrentIdentitySet() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param concurrencyLevel the estimated number of concurrently updating threads.
+     *                         The number of stripes is the next power of two.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentIdentitySet(int concurrencyLevel) {
+        if (concurrencyLevel <= 0)
+            throw new IllegalArgumentException("concurrencyLevel must be positive");
+        int nStripes = Integer.highestOneBit(concurrencyLevel);
+        if (nStripes < concurrencyLevel)
+            nStripes <<= 1;
+        stripes = new Set[nStripes];
+        for (int i = 0; i < nStripes; i++) {
+            stripes[i] = new IdentityHashSet<>();
+        }
+        mask = nStripes - 1;
+    }
+
+    @Override
+    public boolean add(E e) {
+        Set<E> stripe = stripeOf(e);
+        synchronized (stripe) {
+            return stripe.add(e);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Set<E> stripe = stripeOf(o);
+        synchronized (stripe) {
+            return stripe.contains(o);
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Set<E> stripe = stripeOf(o);
+        synchronized (stripe) {
+            return stripe.remove(o);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Set<E> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Set<E> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int nextStripe = 0;
+            private Iterator<E> current = Collections.emptyIterator();
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && nextStripe < stripes.length) {
+                    Set<E> stripe = stripes[nextStripe++];
+                    synchronized (stripe) {
+                        current = new ArrayList<>(stripe).iterator();
+                    }
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                last = current.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null)
+                    throw new IllegalStateException("The next() method has not already been called.");
+                ConcurrentIdentitySet.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private Set<E> stripeOf(Object o) {
+        int h = System.identityHashCode(o);
+        // Spread the higher bits since identity hash codes may be poorly distributed in the lower ones
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+}
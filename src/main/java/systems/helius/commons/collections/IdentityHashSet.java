@@ -0,0 +1,216 @@
+package systems.helius.commons.collections;
+
+import java.util.*;
+
+/**
+ * A set that uses object identity (==) instead of equals() to compare its elements.
+ * <p>
+ * Elements are stored directly in a single array using open addressing with linear probing,
+ * so adding an element allocates nothing besides the occasional resize.
+ * {@link #clear()} keeps the capacity reached, which makes the set cheap to reuse for a workload of similar size.
+ * Null elements are not permitted.
+ * Not thread-safe: see {@link ConcurrentIdentitySet} for a thread-safe alternative.
+ * </p>
+ *
+ * @param <E> the type of elements
+ */
+public class IdentityHashSet<E> extends AbstractSet<E> {
+    private static final int DEFAULT_CAPACITY = 32;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private Object[] table;
+    private int size;
+    /**
+     * Number of elements at which the table is grown, to keep it at most half full.
+     */
+    private int threshold;
+    private int modCount;
+
+    public IdentityHashSet() {
+        this(DEFAULT_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize the number of elements the set should hold without having to grow.
+     */
+    public IdentityHashSet(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public boolean add(E e) {
+        Objects.requireNonNull(e, "IdentityHashSet does not permit null elements");
+        final int mask = table.length - 1;
+        int i = indexOf(e, mask);
+        for (Object slot = table[i]; slot != null; slot = table[i]) {
+            if (slot == e)
+                return false;
+            i = (i + 1) & mask;
+        }
+        table[i] = e;
+        modCount++;
+        if (++size > threshold)
+            resize(table.length << 1);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o != null && slotOf(o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null)
+            return false;
+        int i = slotOf(o);
+        if (i < 0)
+            return false;
+        deleteSlot(i);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all the elements while keeping the current capacity.
+     */
+    @Override
+    public void clear() {
+        if (size == 0)
+            return;
+        Arrays.fill(table, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            /**
+             * The table being iterated. Replaced by a copy on the first removal,
+             * since removals shift the following elements of the live table.
+             */
+            private Object[] traversed = table;
+            private int next = advance(0);
+            private Object last;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < traversed.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                last = traversed[next];
+                next = advance(next + 1);
+                return (E) last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null)
+                    throw new IllegalStateException("The next() method has not already been called.");
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (traversed == table)
+                    traversed = table.clone();
+                IdentityHashSet.this.remove(last);
+                expectedModCount = modCount;
+                last = null;
+            }
+
+            private int advance(int from) {
+                while (from < traversed.length && traversed[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+        };
+    }
+
+    /**
+     * @return the index of the slot holding o, or -1 if o is absent.
+     */
+    private int slotOf(Object o) {
+        final int mask = table.length - 1;
+        int i = indexOf(o, mask);
+        for (Object slot = table[i]; slot != null; slot = table[i]) {
+            if (slot == o)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empty a slot and shift back the elements of the same probe sequence that follow it,
+     * so that lookups never need tombstones.
+     */
+    private void deleteSlot(int hole) {
+        final int mask = table.length - 1;
+        table[hole] = null;
+        size--;
+        modCount++;
+        for (int i = (hole + 1) & mask; table[i] != null; i = (i + 1) & mask) {
+            int home = indexOf(table[i], mask);
+            // Move the element back if its home slot is not cyclically within (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                table[hole] = table[i];
+                table[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private void resize(int newCapacity) {
+        if (table.length >= MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Capacity exhausted");
+        Object[] old = table;
+        allocate(newCapacity);
+        final int mask = newCapacity - 1;
+        for (Object e : old) {
+            if (e == null) continue;
+            int i = indexOf(e, mask);
+            while (table[i] != null) {
+                i = (i + 1) & mask;
+            }
+            table[i] = e;
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new Object[capacity];
+        threshold = capacity >>> 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < MAXIMUM_CAPACITY && capacity >>> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int indexOf(Object o, int mask) {
+        int h = System.identityHashCode(o);
+        // Spread the higher bits since identity hash codes may be poorly distributed in the lower ones
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
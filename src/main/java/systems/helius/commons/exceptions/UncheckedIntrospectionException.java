@@ -0,0 +1,25 @@
+package systems.helius.commons.exceptions;
+
+import java.io.Serial;
+import java.util.Objects;
+
+/**
+ * Wraps an {@link IntrospectionException} where checked exceptions cannot be thrown, such as within a Stream or an Iterator.
+ */
+public class UncheckedIntrospectionException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedIntrospectionException(IntrospectionException cause) {
+        super(Objects.requireNonNull(cause));
+    }
+
+    public UncheckedIntrospectionException(String message, IntrospectionException cause) {
+        super(message, Objects.requireNonNull(cause));
+    }
+
+    @Override
+    public synchronized IntrospectionException getCause() {
+        return (IntrospectionException) super.getCause();
+    }
+}
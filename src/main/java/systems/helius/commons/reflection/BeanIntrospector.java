@@ -1,21 +1,34 @@
 package systems.helius.commons.reflection;
 
 import jakarta.annotation.Nullable;
+import systems.helius.commons.collections.ConcurrentIdentitySet;
+import systems.helius.commons.collections.IdentityHashSet;
 import systems.helius.commons.exceptions.IntrospectionException;
 
 import systems.helius.commons.reflection.accessors.AccessorsChain;
-import systems.helius.commons.reflection.accessors.Content;
+import systems.helius.commons.reflection.accessors.ContentSink;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.lang.invoke.MethodHandles.Lookup;
 
-public class BeanIntrospector {
+public class BeanIntrospector implements Introspector {
     protected final IntrospectionSettings defaults;
     protected final ClassInspector classInspector;
-
-    // IMPROVEMENT a map of fields and varhandles that are already known to resolve them?
+    /**
+     * The accessors are stateless and may be shared by all the introspections.
+     */
+    protected final AccessorsChain accessors;
+    /**
+     * Buffers of the last traversal of each thread. Taken out while in use so that nested traversals get their own.
+     */
+    private final ThreadLocal<TraversalBuffers> buffers = new ThreadLocal<>();
 
     public BeanIntrospector() {
         this(null, null);
@@ -32,6 +45,7 @@ public class BeanIntrospector {
     public BeanIntrospector(@Nullable IntrospectionSettings defaults, @Nullable ClassInspector classInspector) {
         this.defaults = Objects.requireNonNullElseGet(defaults, IntrospectionSettings::new);
         this.classInspector = Objects.requireNonNullElseGet(classInspector, CachingClassInspector::new);
+        this.accessors = new AccessorsChain(this.classInspector);
     }
 
     /*
@@ -48,7 +62,9 @@ public class BeanIntrospector {
         - 2.5: If the value is of the desired type:
             - 2.5.1: Add it to the sought list
             - 2.5.2: If NO_TARGET_INTROSPECTION: go to next iteration
-        - 2.6: Enter the value for introspection
+        - 2.6: If the value is of a leaf type or of a runtime infrastructure type: go to next iteration
+        - 2.7: If the declared types of its fields show that the value cannot lead to the desired type: go to next iteration
+        - 2.8: Enter the value for introspection
     - 3: Once no more fields: return (go back one level)
      */
 
@@ -60,14 +76,217 @@ public class BeanIntrospector {
      * @param context the context of the caller. Should always be MethodHandles.lookup();
      * @return every instance found of the given type
      * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
-     * @see <a href="https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/util/IdentityHashMap.html">Java 17 API: IdentitHashMap</a>
+     * @see IdentityHashSet
      */
+    @Override
     public <T> Set<T> seek(Class<T> targetType, Object root, Lookup context) throws IntrospectionException {
-        Set<T> found = Collections.newSetFromMap(new IdentityHashMap<>());
-        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<T> found = new IdentityHashSet<>();
+        TraversalBuffers traversalBuffers = acquireBuffers();
+        try {
+            var introspectionContext = new IntrospectionContext<>(targetType, context, found, traversalBuffers.visited, accessors);
+            depthFirstSearch(root, null, false, 0, introspectionContext, defaults,
+                    newStackingSink(traversalBuffers.stack, introspectionContext, defaults), traversalBuffers.stack);
+        } catch (TracedAccessException e) {
+            e.setRoot(root);
+            throw new IntrospectionException(e);
+        } finally {
+            releaseBuffers(traversalBuffers);
+        }
+        return found;
+    }
+
+    /**
+     * Seek within the root and all children for instances of a given type and pass each of them to an action.
+     * Unlike {@link #seek(Class, Object, Lookup)}, no collection of the instances found is built,
+     * and the working memory of the traversal is reused between calls on the same thread.
+     * Each instance is passed once, according to object identity (==), not equals().
+     * @param targetType instances to find must be of that type or a covalent type.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @param action receives each instance as soon as it is found.
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    public <T> void walk(Class<T> targetType, Object root, Lookup context, Consumer<? super T> action) throws IntrospectionException {
+        TraversalBuffers traversalBuffers = acquireBuffers();
+        try {
+            DepthFirstTraversal<T> traversal = newPooledTraversal(targetType, root, context, traversalBuffers);
+            for (T match = traversal.next(); match != null; match = traversal.next()) {
+                action.accept(match);
+            }
+        } catch (TracedAccessException e) {
+            e.setRoot(root);
+            throw new IntrospectionException(e);
+        } finally {
+            releaseBuffers(traversalBuffers);
+        }
+    }
+
+    /**
+     * Count the instances of a given type within the root and all children.
+     * No collection of the instances found is built,
+     * and the working memory of the traversal is reused between calls on the same thread.
+     * @param targetType instances to count must be of that type or a covalent type.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @return the number of distinct instances, according to object identity (==), of the given type.
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    public long count(Class<?> targetType, Object root, Lookup context) throws IntrospectionException {
+        TraversalBuffers traversalBuffers = acquireBuffers();
+        try {
+            DepthFirstTraversal<?> traversal = newPooledTraversal(targetType, root, context, traversalBuffers);
+            long count = 0;
+            while (traversal.next() != null) {
+                count++;
+            }
+            return count;
+        } catch (TracedAccessException e) {
+            e.setRoot(root);
+            throw new IntrospectionException(e);
+        } finally {
+            releaseBuffers(traversalBuffers);
+        }
+    }
+
+    private <T> DepthFirstTraversal<T> newPooledTraversal(Class<T> targetType, Object root, Lookup context, TraversalBuffers traversalBuffers) {
+        // Every object is visited once, so the instances found need not be tracked
+        var introspectionContext = new IntrospectionContext<>(targetType, context, Collections.emptySet(),
+                traversalBuffers.visited, accessors);
+        return new DepthFirstTraversal<>(this, root, introspectionContext, defaults, traversalBuffers.stack);
+    }
+
+    TraversalBuffers acquireBuffers() {
+        TraversalBuffers traversalBuffers = buffers.get();
+        if (traversalBuffers == null)
+            return new TraversalBuffers();
+        buffers.set(null);
+        return traversalBuffers;
+    }
+
+    void releaseBuffers(TraversalBuffers traversalBuffers) {
+        if (traversalBuffers.clear())
+            buffers.set(traversalBuffers);
+    }
+
+    /**
+     * Compile a search for instances of a given type within roots of a given class.
+     * The plan resolves once what the static types of the fields tell about the object graph,
+     * which makes repeated searches within structurally similar roots cheaper.
+     * The plan is bound to the current settings of this introspector.
+     * @param targetType instances to find must be of that type or a covalent type.
+     * @param rootClass the class of the roots the plan will be run against. Roots of other classes are searched generically.
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @return a reusable plan of the search.
+     * @throws IntrospectionException if the handles of the fields could not be created.
+     */
+    public <T> SearchPlan<T> compile(Class<T> targetType, Class<?> rootClass, Lookup context) throws IntrospectionException {
+        try {
+            return new SearchPlan<>(this, targetType, rootClass, context, defaults);
+        } catch (IllegalAccessException e) {
+            var traced = new TracedAccessException("Couldn't create a handle for a field reachable from: " + rootClass
+                    + ". This should be impossible. " +
+                    "Please file an issue at https://github.com/SBeausoleil/helius-commons/issues" +
+                    " describing how this happened.", e);
+            throw new IntrospectionException(traced);
+        }
+    }
+
+    /**
+     * Seek within the root and all children for instances of several types in a single traversal.
+     * Equivalent to calling {@link #seek(Class, Object, Lookup)} once per type, but the object graph is only visited once.
+     * When instances of the target types must not be entered, an instance of any of the target types is not entered.
+     * Warning! The returned sets use object identity (==), not equals() as is usually the case with sets.
+     * @param targetTypes the types of the instances to find. At most 64 types may be sought at once.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @return every instance found of each type, keyed by type in the iteration order of targetTypes.
+     * Every target type has an entry, even if no instance of it was found.
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     * @throws IllegalArgumentException if more than 64 types are sought.
+     */
+    public Map<Class<?>, Set<?>> seekAll(Set<Class<?>> targetTypes, Object root, Lookup context) throws IntrospectionException {
+        Set<Object> visited = new IdentityHashSet<>();
+        var introspectionContext = new IntrospectionContext<>(Object.class, context, Collections.emptySet(), visited,
+                accessors, new LinkedHashSet<>(targetTypes));
+        try {
+            return new MultiTargetTraversal(this, introspectionContext, defaults).run(root);
+        } catch (TracedAccessException e) {
+            e.setRoot(root);
+            throw new IntrospectionException(e);
+        }
+    }
+
+    /**
+     * Lazily seek within the root and all children for instances of a given type.
+     * Each instance is yielded as soon as it is found, and the graph is only visited as far as the stream is consumed:
+     * short-circuiting operations such as findFirst(), limit() or anyMatch() leave the rest of the graph unvisited.
+     * <p>
+     * Each instance is yielded once. Like the set returned by {@link #seek(Class, Object, Lookup)},
+     * this is according to object identity (==), not equals().
+     * </p>
+     * @param targetType instances to find must be of that type or a covalent type.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @return a sequential stream of the instances found of the given type.
+     * Fatal access issues are thrown as {@link systems.helius.commons.exceptions.UncheckedIntrospectionException} when consuming it.
+     */
+    public <T> Stream<T> stream(Class<T> targetType, Object root, Lookup context) {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator(targetType, root, context),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Lazily seek within the root and all children for instances of a given type.
+     * @param targetType instances to find must be of that type or a covalent type.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @return an iterator over the instances found of the given type.
+     * Fatal access issues are thrown as {@link systems.helius.commons.exceptions.UncheckedIntrospectionException} when iterating.
+     * @see #stream(Class, Object, Lookup)
+     */
+    public <T> Iterator<T> iterator(Class<T> targetType, Object root, Lookup context) {
+        Set<Object> visited = new IdentityHashSet<>();
+        // Every object is visited once, so the instances found need not be tracked
+        var introspectionContext = new IntrospectionContext<>(targetType, context, Collections.emptySet(), visited, accessors);
+        var traversal = new DepthFirstTraversal<>(this, root, introspectionContext, defaults, new WorkStack());
+        return new SeekIterator<>(traversal, root);
+    }
+
+    /**
+     * Seek within the root and all children for instances of a given type, splitting the work across the common ForkJoinPool.
+     * @see #parallelSeek(Class, Object, Lookup, ForkJoinPool)
+     */
+    public <T> Set<T> parallelSeek(Class<T> targetType, Object root, Lookup context) throws IntrospectionException {
+        return parallelSeek(targetType, root, context, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Seek within the root and all children for instances of a given type, splitting the work across a ForkJoinPool.
+     * Finds the same instances as {@link #seek(Class, Object, Lookup)}.
+     * Worth it for very large object graphs only; the coordination overhead dominates on small ones.
+     * <p>
+     * When a maximum depth is set, which instances are found depends on the order in which the graph is visited.
+     * The search is then done sequentially to keep the results identical to those of {@link #seek(Class, Object, Lookup)}.
+     * </p>
+     * Warning! The returned set uses object identity (==), not equals() as is usually the case with sets.
+     * @param targetType instances to find must be of that type or a covalent type.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @param pool the pool that executes the search.
+     * @return every instance found of the given type
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    public <T> Set<T> parallelSeek(Class<T> targetType, Object root, Lookup context, ForkJoinPool pool) throws IntrospectionException {
+        if (defaults.getMaxDepth() != Integer.MAX_VALUE)
+            return seek(targetType, root, context);
+
+        Set<T> found = new ConcurrentIdentitySet<>();
+        Set<Object> visited = new ConcurrentIdentitySet<>();
+        var introspectionContext = new IntrospectionContext<>(targetType, context, found, visited, accessors);
         try {
-            depthFirstSearch(root, null, 0, new IntrospectionContext<>(targetType, context, found, visited, new AccessorsChain(classInspector, new LookupManager())),
-                    defaults);
+            if (root != null)
+                new ParallelTraversal<>(this, introspectionContext, defaults).run(root, pool);
         } catch (TracedAccessException e) {
             e.setRoot(root);
             throw new IntrospectionException(e);
@@ -80,6 +299,23 @@ public class BeanIntrospector {
                                         int depth,
                                         IntrospectionContext<T> context,
                                         IntrospectionSettings settings) throws TracedAccessException {
+        var frames = new WorkStack();
+        depthFirstSearch(current, holdingField, false, depth, context, settings, newStackingSink(frames, context, settings), frames);
+    }
+
+    /**
+     * @param element whether current is an element of a container reached through the holding field.
+     * @param sink    pushes the children of each object onto the frames.
+     * @param frames  buffer shared by all the levels of the recursion to hold the children of the objects being visited.
+     */
+    private <T> void depthFirstSearch(Object current,
+                                      @Nullable Field holdingField,
+                                      boolean element,
+                                      int depth,
+                                      IntrospectionContext<T> context,
+                                      IntrospectionSettings settings,
+                                      StackingSink sink,
+                                      WorkStack frames) throws TracedAccessException {
         // Checks
         if (current == null || depth >= settings.getMaxDepth() || context.visited().contains(current))
             return;
@@ -93,17 +329,39 @@ public class BeanIntrospector {
                 return;
         }
 
-        if (ClassInspector.isPrimitiveWrapper(current.getClass())) // Also catches primitives due to the autoboxing
+        if (!mayEnter(current.getClass(), context, settings))
             return;
         // End of checks
 
-        descendInto(current, holdingField, depth, context, settings);
+        descendInto(current, holdingField, element, depth, context, settings, sink, frames);
+    }
+
+    private <T> void descendInto(Object current, Field holdingField, boolean element, int depth, IntrospectionContext<T> context,
+                                 IntrospectionSettings settings, StackingSink sink, WorkStack frames) throws TracedAccessException {
+        final int currentDepth = depth + 1;
+        final int from = sink.open(currentDepth);
+        extractContent(current, holdingField, element, context, settings, sink);
+        // The children of deeper frames are pushed above this frame's and truncated before returning
+        final int to = frames.size();
+        for (int i = from; i < to; i++) {
+            depthFirstSearch(frames.valueAt(i), frames.fieldAt(i), frames.elementAt(i), currentDepth, context, settings, sink, frames);
+        }
+        frames.truncate(from);
     }
 
-    private <T> void descendInto(Object current, Field holdingField, int depth, IntrospectionContext<T> context, IntrospectionSettings settings) throws TracedAccessException {
-        Collection<Content> content = null;
+    /**
+     * Push the content of an object into a sink through the accessors of the context.
+     * Nothing is pushed if the extraction failed and the failure may be ignored.
+     * @param element whether current is an element of a container reached through the holding field, rather than its value.
+     * @throws TracedAccessException if the extraction failed and the settings require to fail-fast.
+     */
+    protected void extractContent(Object current, @Nullable Field holdingField, boolean element, IntrospectionContext<?> context,
+                                  IntrospectionSettings settings, ContentSink sink) throws TracedAccessException {
         try {
-            content = context.contentAccessor().extract(current, holdingField, context, settings);
+            if (element)
+                context.contentAccessor().extractElementInto(current, holdingField, context, settings, sink);
+            else
+                context.contentAccessor().extractInto(current, holdingField, context, settings, sink);
         } catch (Exception e) {
             if (!settings.useSafeAccessCheck()) {
                 var traced = new TracedAccessException(e);
@@ -111,14 +369,70 @@ public class BeanIntrospector {
                 throw traced;
             }
         }
-        if (content == null || content.isEmpty()) {
-            return;
-        }
+    }
 
-        final int currentDepth = depth + 1;
-        for (Content c : content) {
-            if (c == null) continue;
-            depthFirstSearch(c.value(), c.holdingField(), currentDepth, context, settings);
+    private StackingSink newStackingSink(WorkStack stack, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        return new StackingSink(stack, field -> mayLeadToTarget(field, context, settings));
+    }
+
+    /**
+     * Checks if an object of a given type must be introspected once it has been matched against the target type.
+     * @param type the exact type of the object
+     * @return false if the object is a leaf, a runtime infrastructure boundary or cannot lead to the target type.
+     */
+    protected boolean mayEnter(Class<?> type, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        return !ClassInspector.isPrimitiveWrapper(type) // Also catches primitives due to the autoboxing
+                && !settings.isLeafType(type)
+                && !settings.getBoundaryPolicy().isBoundary(type)
+                && classInspector.mayContain(type, context.targetType());
+    }
+
+    /**
+     * Prune the content whose declared type guarantees that it cannot be nor lead to the target type.
+     * The containers whose elements are read by the accessors are also pruned when the declared types
+     * of their elements guarantee it, such as a List&lt;String&gt; when seeking a Human.
+     * @param holdingField the field that holds the content
+     */
+    protected boolean mayLeadToTarget(Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        return mayLeadTo(holdingField, context.targetType(), settings);
+    }
+
+    boolean mayLeadTo(Field holdingField, Class<?> targetType, IntrospectionSettings settings) {
+        Class<?> declaredType = holdingField.getType();
+        List<Class<?>> elementTypes = readsOnlyElements(declaredType, settings) ? ClassInspector.getElementTypes(holdingField) : null;
+        if (elementTypes == null)
+            return classInspector.mayLeadTo(declaredType, targetType);
+
+        // The container itself may be an instance of the target type
+        if (mayBeInstanceOf(declaredType, targetType))
+            return true;
+        if (Map.class.isAssignableFrom(declaredType)) {
+            MapTraversalMode mode = settings.getMapTraversalMode();
+            return (mode != MapTraversalMode.VALUES_ONLY && classInspector.mayLeadTo(elementTypes.get(0), targetType))
+                    || (mode != MapTraversalMode.KEYS_ONLY && classInspector.mayLeadTo(elementTypes.get(1), targetType));
         }
+        return classInspector.mayLeadTo(elementTypes.get(0), targetType);
+    }
+
+    /**
+     * @return true if the accessors only read the elements of the containers of the declared type, not their fields.
+     */
+    private static boolean readsOnlyElements(Class<?> declaredType, IntrospectionSettings settings) {
+        if (Map.class.isAssignableFrom(declaredType))
+            return !settings.isDetailledMapCheck();
+        if (Iterable.class.isAssignableFrom(declaredType))
+            return !settings.isDetailledIterableCheck();
+        return declaredType == Optional.class;
+    }
+
+    /**
+     * @return false if no container of the declared type can be an instance of the target type.
+     * The implementation of a container may implement any target interface, such as Serializable,
+     * but is not expected to also extend an unrelated target class.
+     */
+    private static boolean mayBeInstanceOf(Class<?> declaredType, Class<?> targetType) {
+        return targetType.isAssignableFrom(declaredType)
+                || declaredType.isAssignableFrom(targetType)
+                || (targetType.isInterface() && !Modifier.isFinal(declaredType.getModifiers()));
     }
 }
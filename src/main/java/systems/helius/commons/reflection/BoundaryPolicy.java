@@ -0,0 +1,104 @@
+package systems.helius.commons.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.AccessibleObject;
+import java.security.ProtectionDomain;
+import java.util.Set;
+
+/**
+ * Decides at which types an introspection must stop because they belong to the runtime infrastructure
+ * rather than to the application data.
+ * Traversing such types (class loaders, threads, references...) would lead into a large part of the JVM's internal state.
+ * <p>
+ * Instances of boundary types are still matched against the target type, but never introspected.
+ * Unlike leaf types, boundary types also stop the introspection of their subclasses.
+ * The verdict is computed once per class.
+ * </p>
+ */
+public class BoundaryPolicy {
+    /**
+     * Runtime infrastructure types at which introspection stops by default.
+     */
+    public static final Set<Class<?>> DEFAULT_BOUNDARY_TYPES = Set.of(
+            Class.class,
+            ClassLoader.class,
+            Module.class,
+            ModuleLayer.class,
+            ProtectionDomain.class,
+            Thread.class,
+            ThreadGroup.class,
+            Reference.class,
+            ReferenceQueue.class,
+            AccessibleObject.class,
+            MethodHandle.class,
+            VarHandle.class,
+            MethodHandles.Lookup.class,
+            System.Logger.class,
+            java.util.logging.Logger.class
+    );
+
+    private static final BoundaryPolicy DEFAULT = new BoundaryPolicy();
+
+    private final Set<Class<?>> boundaryTypes;
+    private final boolean stopAtHiddenClasses;
+    private final ClassValue<Boolean> verdicts = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return computeBoundary(type);
+        }
+    };
+
+    /**
+     * Create a policy that stops at the {@link #DEFAULT_BOUNDARY_TYPES} and at hidden classes.
+     */
+    public BoundaryPolicy() {
+        this(DEFAULT_BOUNDARY_TYPES, true);
+    }
+
+    /**
+     * @param boundaryTypes       types (and their subtypes) at which introspection stops.
+     * @param stopAtHiddenClasses if true, introspection also stops at hidden classes, such as the classes of lambdas.
+     */
+    public BoundaryPolicy(Set<Class<?>> boundaryTypes, boolean stopAtHiddenClasses) {
+        this.boundaryTypes = Set.copyOf(boundaryTypes);
+        this.stopAtHiddenClasses = stopAtHiddenClasses;
+    }
+
+    /**
+     * @return the shared policy built with the default boundaries.
+     */
+    public static BoundaryPolicy defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Checks if the introspection must stop at instances of a type.
+     * @param type the exact type of an instance
+     * @return true if instances of type must not be introspected.
+     */
+    public boolean isBoundary(Class<?> type) {
+        return verdicts.get(type);
+    }
+
+    public Set<Class<?>> getBoundaryTypes() {
+        return boundaryTypes;
+    }
+
+    public boolean isStopAtHiddenClasses() {
+        return stopAtHiddenClasses;
+    }
+
+    protected boolean computeBoundary(Class<?> type) {
+        if (stopAtHiddenClasses && type.isHidden())
+            return true;
+        for (Class<?> boundaryType : boundaryTypes) {
+            if (boundaryType.isAssignableFrom(type))
+                return true;
+        }
+        return false;
+    }
+}
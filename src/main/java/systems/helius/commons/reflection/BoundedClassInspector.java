@@ -0,0 +1,261 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.annotations.Unstable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ClassInspector} that keeps the metadata of at most a given number of classes.
+ * <p>
+ * Fit for environments where classes keep being generated, such as proxies and lambdas,
+ * in which the metadata kept by a {@link CachingClassInspector} would only grow.
+ * Once the maximum size is reached, admitting the metadata of a new class evicts that of the least frequently used class
+ * among a random sample of the classes kept. The frequencies of all the classes kept are halved periodically,
+ * so that classes that were used heavily a long time ago do not stay forever.
+ * Classes used only once, such as most generated ones, are thus the first to go.
+ * </p>
+ * <p>
+ * An evicted class is no longer referenced by the inspector. Its metadata is computed anew if it is inspected again.
+ * The statistics of the inspector, returned by {@link #getStats()}, help choosing the maximum size.
+ * </p>
+ */
+@Unstable
+public final class BoundedClassInspector extends ClassInspector {
+    /**
+     * Number of classes compared to choose the one to evict.
+     */
+    static final int SAMPLE_SIZE = 8;
+    /**
+     * Number of admissions, in multiples of the maximum size, between two halvings of the frequencies.
+     */
+    static final int AGING_PERIOD = 10;
+    private static final int MAX_FREQUENCY = 1 << 20;
+
+    private final int maximumSize;
+    private final Map<Class<?>, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * The entries kept, for sampling. Guarded by the admission lock.
+     */
+    private final Entry[] slots;
+    private int size;
+    private int admissionsSinceAging;
+    private final Object admissionLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+
+    /**
+     * Statistics of the metadata kept by a {@link BoundedClassInspector} since its creation.
+     *
+     * @param hitCount      the number of times the metadata of a class was requested and was kept.
+     * @param missCount     the number of times the metadata of a class was requested and had to be created.
+     * @param evictionCount the number of classes evicted.
+     * @param totalLoadTime the nanoseconds spent computing metadata. As with most caches,
+     *                      the time of a computation includes that of the computations it triggered, such as those of superclasses.
+     * @param size          the number of classes kept.
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount, long totalLoadTime, int size) {
+        /**
+         * @return the ratio of requests that were hits, or 1 if there was no request.
+         */
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+    }
+
+    private static final class Entry {
+        final Class<?> type;
+        final ClassMetadata metadata = new ClassMetadata();
+        /**
+         * Approximate: concurrent increments may be lost, which does not matter to the eviction policy.
+         */
+        int frequency = 1;
+        /**
+         * Index in the slots. Guarded by the admission lock.
+         */
+        int slot;
+
+        Entry(Class<?> type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * @param maximumSize the maximal number of classes whose metadata is kept.
+     */
+    public BoundedClassInspector(int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * @param maximumSize   the maximal number of classes whose metadata is kept.
+     * @param lookupManager acquires the privileged lookups. If null, a {@link CachingLookupManager} is used.
+     */
+    public BoundedClassInspector(int maximumSize, @Nullable LookupManager lookupManager) {
+        super(Objects.requireNonNullElseGet(lookupManager, CachingLookupManager::new));
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("maximumSize must be positive, got: " + maximumSize);
+        this.maximumSize = maximumSize;
+        this.slots = new Entry[maximumSize];
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return a snapshot of the statistics of the inspector.
+     */
+    public Stats getStats() {
+        int currentSize;
+        synchronized (admissionLock) {
+            currentSize = size;
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), loadTime.sum(), currentSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The map itself and its lists are unmodifiable.
+     */
+    @Override
+    public Map<Class<?>, List<Field>> getAllFieldsHierarchical(Class<?> clazz) {
+        return metadataOf(clazz).getHierarchy(() -> timed(() -> super.getAllFieldsHierarchical(clazz)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The list is unmodifiable.
+     */
+    @Override
+    public List<Field> getAllFieldsFlat(Class<?> clazz) {
+        ClassMetadata metadata = metadataOf(clazz);
+        // Built from the hierarchy of the same entry, so that a single request counts once in the stats
+        return metadata.getFlat(() -> timed(() -> flatten(hierarchyOf(clazz, metadata))));
+    }
+
+    @Override
+    public ClassLayout getLayout(Class<?> clazz) {
+        ClassMetadata metadata = metadataOf(clazz);
+        return metadata.getLayout(() -> timed(() -> ClassLayout.of(clazz, hierarchyOf(clazz, metadata))));
+    }
+
+    private Map<Class<?>, List<Field>> hierarchyOf(Class<?> clazz, ClassMetadata metadata) {
+        return metadata.getHierarchy(() -> super.getAllFieldsHierarchical(clazz));
+    }
+
+    @Override
+    public FieldHandles getFieldHandles(Class<?> clazz, MethodHandles.Lookup context) throws IllegalAccessException {
+        return metadataOf(clazz).getHandles(context, () -> timedResolution(() -> super.getFieldHandles(clazz, context)));
+    }
+
+    @Override
+    public FieldPlan getFieldPlan(Class<?> clazz, MethodHandles.Lookup context) throws IllegalAccessException {
+        return metadataOf(clazz).getPlan(context, () -> timedResolution(() -> super.getFieldPlan(clazz, context)));
+    }
+
+    @Override
+    public boolean mayContain(Class<?> type, Class<?> targetType) {
+        ClassMetadata metadata = metadataOf(type);
+        Boolean known = metadata.findContainment(targetType);
+        if (known != null)
+            return known;
+        return metadata.getContainment(targetType, (t, dependencies) -> timed(() -> super.mayContain(type, t)));
+    }
+
+    @Override
+    public boolean mayLeadTo(Class<?> declaredType, Class<?> targetType) {
+        ClassMetadata metadata = metadataOf(declaredType);
+        Boolean known = metadata.findLeading(targetType);
+        if (known != null)
+            return known;
+        return metadata.getLeading(targetType, (t, dependencies) -> timed(() -> super.mayLeadTo(declaredType, t)));
+    }
+
+    private <T> T timed(Supplier<T> load) {
+        long start = System.nanoTime();
+        try {
+            return load.get();
+        } finally {
+            loadTime.add(System.nanoTime() - start);
+        }
+    }
+
+    private <T> T timedResolution(ClassMetadata.Resolver<T> resolution) throws IllegalAccessException {
+        long start = System.nanoTime();
+        try {
+            return resolution.resolve();
+        } finally {
+            loadTime.add(System.nanoTime() - start);
+        }
+    }
+
+    private ClassMetadata metadataOf(Class<?> type) {
+        Entry entry = entries.get(type);
+        if (entry != null) {
+            hits.increment();
+            if (entry.frequency < MAX_FREQUENCY)
+                entry.frequency++;
+            return entry.metadata;
+        }
+        synchronized (admissionLock) {
+            entry = entries.get(type);
+            if (entry == null) {
+                misses.increment();
+                entry = new Entry(type);
+                if (size == maximumSize)
+                    evict();
+                if (++admissionsSinceAging / AGING_PERIOD >= maximumSize)
+                    age();
+                entry.slot = size;
+                slots[size++] = entry;
+                entries.put(type, entry);
+            } else {
+                hits.increment();
+            }
+        }
+        return entry.metadata;
+    }
+
+    /**
+     * Evict the least frequently used entry of a random sample. Called with the admission lock held.
+     */
+    private void evict() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Entry victim = null;
+        for (int i = 0; i < Math.min(SAMPLE_SIZE, size); i++) {
+            Entry candidate = slots[random.nextInt(size)];
+            if (victim == null || candidate.frequency < victim.frequency)
+                victim = candidate;
+        }
+        // Swap the last entry into the slot of the victim
+        Entry last = slots[--size];
+        slots[victim.slot] = last;
+        last.slot = victim.slot;
+        slots[size] = null;
+        entries.remove(victim.type);
+        evictions.increment();
+    }
+
+    /**
+     * Halve the frequencies of all the entries. Called with the admission lock held.
+     */
+    private void age() {
+        for (int i = 0; i < size; i++) {
+            slots[i].frequency = Math.max(1, slots[i].frequency >>> 1);
+        }
+        admissionsSinceAging = 0;
+    }
+}
@@ -1,15 +1,69 @@
 package systems.helius.commons.reflection;
 
+import jakarta.annotation.Nullable;
 import systems.helius.commons.annotations.Unstable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * A {@link ClassInspector} that computes the metadata of each class once and reuses it.
+ * <p>
+ * The metadata is held by a {@link ClassValue}: it is computed exactly once even under concurrent first access,
+ * and it does not keep the class from being unloaded, along with its class loader.
+ * </p>
+ */
 @Unstable
 public final class CachingClassInspector extends ClassInspector {
-    private final Map<Class<?>, Map<Class<?>, List<Field>>> hierarchyCache = new ConcurrentHashMap<>();
-    private final Map<Class<?>, List<Field>> flatCache = new ConcurrentHashMap<>();
+    /**
+     * The metadata of each class inspected, reclaimed along with the class.
+     */
+    private final ClassValue<ClassMetadata> metadata;
+    /**
+     * The classes that have metadata, to export it.
+     */
+    private final Set<Class<?>> inspected = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    /**
+     * The verdicts imported, if any.
+     */
+    @Nullable
+    private volatile MetadataSnapshot snapshot;
+
+    /**
+     * Static for the values not to reference the inspector, which would keep the {@link ClassValue} reachable from its own values.
+     */
+    private static final class MetadataValue extends ClassValue<ClassMetadata> {
+        private final Set<Class<?>> inspected;
+
+        MetadataValue(Set<Class<?>> inspected) {
+            this.inspected = inspected;
+        }
+
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            inspected.add(type);
+            return new ClassMetadata();
+        }
+    }
+
+    /**
+     * Create an inspector whose privileged lookups are cached by a {@link CachingLookupManager}.
+     */
+    public CachingClassInspector() {
+        this(null);
+    }
+
+    /**
+     * @param lookupManager acquires the privileged lookups. If null, a {@link CachingLookupManager} is used.
+     */
+    public CachingClassInspector(@Nullable LookupManager lookupManager) {
+        super(Objects.requireNonNullElseGet(lookupManager, CachingLookupManager::new));
+        this.metadata = new MetadataValue(inspected);
+    }
 
     /**
      * Get all the fields that are present in members of a given class.
@@ -24,16 +78,7 @@ public final class CachingClassInspector extends ClassInspector {
      */
     @Override
     public Map<Class<?>, List<Field>> getAllFieldsHierarchical(Class<?> clazz) {
-        Map<Class<?>, List<Field>> result = hierarchyCache.get(clazz);
-        if (result == null) {
-            Map<Class<?>, List<Field>> raw = super.getAllFieldsHierarchical(clazz);
-            result = new LinkedHashMap<>();
-            for (Map.Entry<Class<?>, List<Field>> entry : raw.entrySet()) {
-                result.put(entry.getKey(), List.copyOf(entry.getValue()));
-            }
-            hierarchyCache.put(clazz, Collections.unmodifiableMap(result));
-        }
-        return result;
+        return metadata.get(clazz).getHierarchy(() -> super.getAllFieldsHierarchical(clazz));
     }
 
     /**
@@ -41,10 +86,146 @@ public final class CachingClassInspector extends ClassInspector {
      * Recursively checks up into the class tree of clazz to accumulate members.
      *
      * @param clazz to analyze
-     * @return all the fields that members of clazz have.
+     * @return all the fields that members of clazz have, in an unmodifiable list.
      */
     @Override
     public List<Field> getAllFieldsFlat(Class<?> clazz) {
-        return flatCache.computeIfAbsent(clazz, super::getAllFieldsFlat);
+        return metadata.get(clazz).getFlat(() -> super.getAllFieldsFlat(clazz));
+    }
+
+    /**
+     * Get the layout of the fields of a given class: its instance fields grouped by declaring class, then its static fields,
+     * each with precomputed flags. The layout is computed once per class.
+     *
+     * @param clazz to analyze
+     * @return the layout of the fields of clazz.
+     */
+    @Override
+    public ClassLayout getLayout(Class<?> clazz) {
+        return metadata.get(clazz).getLayout(() -> super.getLayout(clazz));
+    }
+
+    /**
+     * Get all the fields and their private handle that are present in members of a given class, indexed by position.
+     * The handles are resolved once per class and lookup context, then reused.
+     *
+     * @param clazz   to analyze
+     * @param context the context of the lookup
+     * @return the handles of all the fields of clazz, in the order of {@link #getAllFieldsFlat(Class)}.
+     * @throws IllegalAccessException if the context is not allowed to access the field
+     */
+    @Override
+    public FieldHandles getFieldHandles(Class<?> clazz, MethodHandles.Lookup context) throws IllegalAccessException {
+        return metadata.get(clazz).getHandles(context, () -> super.getFieldHandles(clazz, context));
+    }
+
+    /**
+     * Resolve the handles of all the instance fields of a given class.
+     * The plan is resolved once per class and lookup context, then reused.
+     *
+     * @param clazz   to analyze
+     * @param context the context of the caller
+     * @return the plan to read the instance fields of clazz
+     * @throws IllegalAccessException if a handle could not be created despite a privileged lookup having been acquired.
+     */
+    @Override
+    public FieldPlan getFieldPlan(Class<?> clazz, MethodHandles.Lookup context) throws IllegalAccessException {
+        return metadata.get(clazz).getPlan(context, () -> super.getFieldPlan(clazz, context));
+    }
+
+    /**
+     * Determine from the declared types of its fields whether an object may contain an instance of a target type.
+     * The verdict is computed once per (type, targetType) pair.
+     *
+     * @param type       the exact runtime type of the object
+     * @param targetType the sought type
+     * @return false if no instance of targetType can be reached through the content of an instance of type.
+     */
+    @Override
+    public boolean mayContain(Class<?> type, Class<?> targetType) {
+        ClassMetadata classMetadata = metadata.get(type);
+        // Spares the resolver once the verdict is known
+        Boolean known = classMetadata.findContainment(targetType);
+        if (known != null)
+            return known;
+        return classMetadata.getContainment(targetType, (t, dependencies) -> {
+            MetadataSnapshot imported = snapshot;
+            Boolean verdict = imported != null ? imported.findContainment(type, t, dependencies) : null;
+            if (verdict != null)
+                return verdict;
+            var reachability = new TypeReachability(this, t);
+            boolean value = reachability.mayContain(type);
+            recordDependencies(type, reachability, dependencies);
+            return value;
+        });
+    }
+
+    /**
+     * Determine from its declared type whether a field may hold an instance of a target type or lead to one.
+     * The verdict is computed once per (declaredType, targetType) pair.
+     *
+     * @param declaredType the declared type of the field
+     * @param targetType   the sought type
+     * @return false if no value held by a field of declaredType can be or lead to an instance of targetType.
+     */
+    @Override
+    public boolean mayLeadTo(Class<?> declaredType, Class<?> targetType) {
+        ClassMetadata classMetadata = metadata.get(declaredType);
+        // Spares the resolver once the verdict is known
+        Boolean known = classMetadata.findLeading(targetType);
+        if (known != null)
+            return known;
+        return classMetadata.getLeading(targetType, (t, dependencies) -> {
+            MetadataSnapshot imported = snapshot;
+            Boolean verdict = imported != null ? imported.findLeading(declaredType, t, dependencies) : null;
+            if (verdict != null)
+                return verdict;
+            var reachability = new TypeReachability(this, t);
+            boolean value = reachability.mayLeadTo(declaredType);
+            recordDependencies(declaredType, reachability, dependencies);
+            return value;
+        });
+    }
+
+    private static void recordDependencies(Class<?> type, TypeReachability reachability, List<String> dependencies) {
+        Set<String> names = new LinkedHashSet<>();
+        MetadataSnapshot.addDependencies(type, names);
+        for (Class<?> explored : reachability.getExplored()) {
+            MetadataSnapshot.addDependencies(explored, names);
+        }
+        dependencies.addAll(names);
+    }
+
+    /**
+     * Write the verdicts of the reachability analysis computed so far, for another JVM to import them.
+     * <p>
+     * Verdicts are what is expensive to compute at startup, and what can be trusted again in a later run:
+     * each is written with a fingerprint of the class files it depends on and is only imported back if they did not change.
+     * The verdicts involving classes without a class file, such as generated ones, are not written.
+     * </p>
+     *
+     * @param out receives the snapshot. Not closed.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void exportMetadata(OutputStream out) throws IOException {
+        List<Class<?>> classes;
+        synchronized (inspected) {
+            classes = new ArrayList<>(inspected);
+        }
+        MetadataSnapshot.write(out, classes, metadata::get);
+    }
+
+    /**
+     * Read the verdicts written by {@link #exportMetadata(OutputStream)}, possibly in another JVM.
+     * Replaces the verdicts imported previously, if any.
+     * <p>
+     * The verdicts are validated lazily, when they are first needed: the stale ones are discarded and computed anew.
+     * </p>
+     *
+     * @param in the snapshot. Not closed.
+     * @throws IOException if reading from the stream fails or if it is not a snapshot of a supported version.
+     */
+    public void importMetadata(InputStream in) throws IOException {
+        snapshot = MetadataSnapshot.read(in);
     }
 }
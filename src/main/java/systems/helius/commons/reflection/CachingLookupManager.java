@@ -0,0 +1,152 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.exceptions.LoookupAcquisitionException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link LookupManager} that remembers the outcome of every attempt at acquiring a privileged lookup,
+ * whether it succeeded or not, per target class and caller lookup.
+ * <p>
+ * Outcomes are attached to the target class through a {@link ClassValue}, and held per caller class in a weak map,
+ * so that caching does not prevent classes from being unloaded.
+ * A privileged lookup that remembers its caller through {@link MethodHandles.Lookup#previousLookupClass()},
+ * as one acquired on a class of another module does, is never kept: only lookups whose classes are all in the module
+ * of the target are cached.
+ * Once an attempt has failed, both {@link #getPrivilegedLookup(Class, MethodHandles.Lookup, MethodHandles.Lookup...)}
+ * and {@link #findPrivilegedLookup(Class, MethodHandles.Lookup, MethodHandles.Lookup...)} fail fast on it,
+ * without building an exception per attempt.
+ * </p>
+ */
+public class CachingLookupManager extends LookupManager {
+    private final ClassValue<Map<Class<?>, Outcome[]>> outcomes = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, Outcome[]> computeValue(Class<?> target) {
+            return new WeakHashMap<>();
+        }
+    };
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The outcome of an attempt by callers of a given access mode and previous lookup class.
+     * Only the message of a denial is kept: the stack trace of the exception would keep the classes of the failed call alive,
+     * the caller included, for as long as the target class.
+     * @param previousLookupClass the previous lookup class of the callers, weakly held. Null if they had none.
+     * @param denial the reason of the denial. Null if the lookup was acquired.
+     */
+    private record Outcome(int lookupModes, @Nullable WeakReference<Class<?>> previousLookupClass,
+                           @Nullable MethodHandles.Lookup lookup, @Nullable String denial) {
+        boolean isFor(MethodHandles.Lookup caller) {
+            return lookupModes == caller.lookupModes()
+                    && (previousLookupClass == null ? caller.previousLookupClass() == null
+                                                    : previousLookupClass.get() == caller.previousLookupClass());
+        }
+
+        boolean isStale() {
+            return previousLookupClass != null && previousLookupClass.get() == null;
+        }
+    }
+
+    @Override
+    public MethodHandles.Lookup getPrivilegedLookup(Class<?> target, MethodHandles.Lookup caller, MethodHandles.Lookup... fallbacks) throws LoookupAcquisitionException {
+        Outcome outcome = outcomeOf(target, caller);
+        if (outcome.lookup() != null)
+            return outcome.lookup();
+        List<String> errorMessages = new ArrayList<>(fallbacks.length + 1);
+        errorMessages.add(outcome.denial());
+        for (var fallback : fallbacks) {
+            outcome = outcomeOf(target, fallback);
+            if (outcome.lookup() != null)
+                return outcome.lookup();
+            errorMessages.add(outcome.denial());
+        }
+        throw new LoookupAcquisitionException(allDenied(errorMessages));
+    }
+
+    @Override
+    protected MethodHandles.Lookup privateLookupIn(Class<?> target, MethodHandles.Lookup caller) throws IllegalAccessException {
+        Outcome outcome = outcomeOf(target, caller);
+        if (outcome.denial() != null)
+            throw new IllegalAccessException(outcome.denial());
+        return outcome.lookup();
+    }
+
+    @Nullable
+    @Override
+    protected MethodHandles.Lookup tryPrivateLookupIn(Class<?> target, MethodHandles.Lookup caller) {
+        return outcomeOf(target, caller).lookup();
+    }
+
+    /**
+     * @return the number of attempts whose outcome was already known.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of attempts that had to be made.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private Outcome outcomeOf(Class<?> target, MethodHandles.Lookup caller) {
+        Map<Class<?>, Outcome[]> byCaller = outcomes.get(target);
+        Outcome[] known;
+        synchronized (byCaller) {
+            known = byCaller.get(caller.lookupClass());
+        }
+        if (known != null) {
+            for (Outcome outcome : known) {
+                if (outcome.isFor(caller)) {
+                    hits.increment();
+                    return outcome;
+                }
+            }
+        }
+
+        misses.increment();
+        Class<?> previous = caller.previousLookupClass();
+        WeakReference<Class<?>> previousReference = previous == null ? null : new WeakReference<>(previous);
+        Outcome outcome;
+        try {
+            MethodHandles.Lookup privileged = super.privateLookupIn(target, caller);
+            outcome = new Outcome(caller.lookupModes(), previousReference, privileged, null);
+            if (privileged.previousLookupClass() != null) {
+                // Keeping it would pin the caller, and its class loader, for as long as the target class
+                return outcome;
+            }
+        } catch (IllegalAccessException e) {
+            outcome = new Outcome(caller.lookupModes(), previousReference, null,
+                    Objects.requireNonNullElse(e.getMessage(), "Access to " + target.getName() + " was denied"));
+        }
+        synchronized (byCaller) {
+            Outcome[] current = byCaller.get(caller.lookupClass());
+            if (current == null) {
+                byCaller.put(caller.lookupClass(), new Outcome[]{outcome});
+                return outcome;
+            }
+            for (Outcome concurrent : current) {
+                if (concurrent.isFor(caller))
+                    return concurrent;
+            }
+            // Callers of the same class with different access modes are rare, so a linear array is enough
+            Outcome[] updated = Arrays.stream(current).filter(other -> !other.isStale()).toArray(Outcome[]::new);
+            updated = Arrays.copyOf(updated, updated.length + 1);
+            updated[updated.length - 1] = outcome;
+            byCaller.put(caller.lookupClass(), updated);
+        }
+        return outcome;
+    }
+}
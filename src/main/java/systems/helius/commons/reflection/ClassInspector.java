@@ -11,7 +11,7 @@ import java.lang.reflect.Field;
 import java.util.*;
 
 @Unstable
-public sealed class ClassInspector permits CachingClassInspector {
+public sealed class ClassInspector permits BoundedClassInspector, CachingClassInspector {
     /**
      * Wrapper types of Java lang primitives.
      * Key: Wrapper class
@@ -43,7 +43,7 @@ public sealed class ClassInspector permits CachingClassInspector {
 
     /**
      * Get all the fields that are present in members of a given class.
-     * Recursively checks up into the class tree of clazz to accumulate members.
+     * Walks up the class tree of clazz to accumulate members.
      * If iterated by entry, the first entry is always the clazz argument
      * and the last entry is always the top-most class in its hierarchy.
      * Object is ignored from the hierarchy.
@@ -55,15 +55,25 @@ public sealed class ClassInspector permits CachingClassInspector {
     public Map<Class<?>, List<Field>> getAllFieldsHierarchical(Class<?> clazz) {
         var fields = new LinkedHashMap<Class<?>, List<Field>>();
         fields.put(clazz, List.of(clazz.getDeclaredFields()));
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null
-                && !superClass.equals(Object.class)
-                && !superClass.equals(Enum.class)) {
-            fields.putAll(getAllFieldsHierarchical(superClass));
+        for (Class<?> superClass = clazz.getSuperclass();
+             superClass != null && !superClass.equals(Object.class) && !superClass.equals(Enum.class);
+             superClass = superClass.getSuperclass()) {
+            fields.put(superClass, List.of(superClass.getDeclaredFields()));
         }
         return fields;
     }
 
+    /**
+     * Get the layout of the fields of a given class: its instance fields grouped by declaring class, then its static fields,
+     * each with precomputed flags.
+     *
+     * @param clazz to analyze
+     * @return the layout of the fields of clazz.
+     */
+    public ClassLayout getLayout(Class<?> clazz) {
+        return ClassLayout.of(clazz, getAllFieldsHierarchical(clazz));
+    }
+
     /**
      * Get all the fields that are present in members of a given class.
      * Recursively checks up into the class tree of clazz to accumulate members.
@@ -72,7 +82,14 @@ public sealed class ClassInspector permits CachingClassInspector {
      * @return all the fields that members of clazz have.
      */
     public List<Field> getAllFieldsFlat(Class<?> clazz) {
-        Map<Class<?>, List<Field>> hierarchical = getAllFieldsHierarchical(clazz);
+        return flatten(getAllFieldsHierarchical(clazz));
+    }
+
+    /**
+     * @param hierarchical the fields of a class, as given by {@link #getAllFieldsHierarchical(Class)}.
+     * @return the fields in the order of {@link #getAllFieldsFlat(Class)}.
+     */
+    static List<Field> flatten(Map<Class<?>, List<Field>> hierarchical) {
         int reserve = hierarchical.values().stream().mapToInt(List::size).sum();
         ArrayList<Field> buffer = new ArrayList<>(reserve);
         for (List<Field> fields : hierarchical.values()) {
@@ -87,12 +104,27 @@ public sealed class ClassInspector permits CachingClassInspector {
      * @param context the context of the lookup
      * @return a map where the key is the field and the value its access handle.
      * @throws IllegalAccessException if the context is not allowed to access the field
+     * @see #getFieldHandles(Class, MethodHandles.Lookup)
      */
     public Map<Field, VarHandle> getAllFieldsHandles(Class<?> clazz, MethodHandles.Lookup context) throws IllegalAccessException {
-        Map<Field, VarHandle> handles = new LinkedHashMap<>();
-        var inspector = new ClassInspector();
+        return getFieldHandles(clazz, context).asMap();
+    }
+
+    /**
+     * Get all the fields and their private handle that are present in members of a given class, indexed by position.
+     * @param clazz to analyze
+     * @param context the context of the lookup
+     * @return the handles of all the fields of clazz, in the order of {@link #getAllFieldsFlat(Class)}.
+     * @throws IllegalAccessException if the context is not allowed to access the field
+     */
+    public FieldHandles getFieldHandles(Class<?> clazz, MethodHandles.Lookup context) throws IllegalAccessException {
+        Map<Class<?>, List<Field>> hierarchy = getAllFieldsHierarchical(clazz);
+        int size = hierarchy.values().stream().mapToInt(List::size).sum();
+        Field[] fields = new Field[size];
+        VarHandle[] handles = new VarHandle[size];
+        int i = 0;
         MethodHandles.Lookup privilegedLookup = context;
-        for (Map.Entry<Class<?>, List<Field>> fieldsByClass :  getAllFieldsHierarchical(clazz).entrySet()) {
+        for (Map.Entry<Class<?>, List<Field>> fieldsByClass : hierarchy.entrySet()) {
             if (context.lookupClass() != fieldsByClass.getKey()) {
                 // This grants access to the private fields within superclasses
                 try {
@@ -102,10 +134,109 @@ public sealed class ClassInspector permits CachingClassInspector {
                 }
             }
             for (Field field : fieldsByClass.getValue()) {
-                handles.put(field, privilegedLookup.unreflectVarHandle(field));
+                fields[i] = field;
+                handles[i++] = privilegedLookup.unreflectVarHandle(field);
             }
         }
-        return handles;
+        return new FieldHandles(clazz, fields, handles);
+    }
+
+    /**
+     * Resolve the handles of all the instance fields of a given class.
+     * Unlike {@link #getAllFieldsHandles(Class, MethodHandles.Lookup)}, a class of the hierarchy
+     * that cannot be accessed does not fail the whole resolution; its segment of the plan records the failure instead.
+     *
+     * @param clazz   to analyze
+     * @param context the context of the caller
+     * @return the plan to read the instance fields of clazz
+     * @throws IllegalAccessException if a handle could not be created despite a privileged lookup having been acquired.
+     */
+    public FieldPlan getFieldPlan(Class<?> clazz, MethodHandles.Lookup context) throws IllegalAccessException {
+        ClassLayout layout = getLayout(clazz);
+        // The classes with generated metadata are read without handles, but the caller must still be granted
+        // the privileged lookup that the handles would have required: the generated code reads private fields.
+        var generated = new FieldExtractor[layout.groupCount()];
+        var generatedFields = new Field[layout.groupCount()][];
+        for (int group = 0; group < layout.groupCount(); group++) {
+            GeneratedMetadata metadata = GeneratedMetadataRegistry.find(layout.getGroupClass(group));
+            if (metadata != null)
+                generatedFields[group] = GeneratedMetadataRegistry.match(metadata, layout.getGroupFields(group));
+            if (generatedFields[group] != null)
+                generated[group] = metadata;
+        }
+
+        MethodHandles.Lookup privilegedLookup = lookupManager.findPrivilegedLookup(clazz, context, MethodHandles.lookup());
+        if (privilegedLookup == null)
+            return new FieldPlan(clazz, denialOf(clazz, context, MethodHandles.lookup()));
+
+        var segments = new ArrayList<FieldPlan.Segment>(layout.groupCount());
+        boolean anyGenerated = false;
+        for (int group = 0; group < layout.groupCount(); group++) {
+            Class<?> declaringClass = layout.getGroupClass(group);
+            Field[] fields = layout.getGroupFields(group);
+            if (privilegedLookup.lookupClass() != declaringClass) {
+                // This grants access to the private fields within superclasses
+                MethodHandles.Lookup superLookup = lookupManager.findPrivilegedLookup(declaringClass, context, privilegedLookup);
+                if (superLookup == null) {
+                    segments.add(new FieldPlan.Segment(declaringClass, fields, new VarHandle[0],
+                            denialOf(declaringClass, context, privilegedLookup), null));
+                    generated[group] = null;
+                    continue;
+                }
+                privilegedLookup = superLookup;
+            }
+            if (generated[group] != null) {
+                segments.add(new FieldPlan.Segment(declaringClass, generatedFields[group], new VarHandle[0], null, null));
+                anyGenerated = true;
+                continue;
+            }
+            VarHandle[] handles = new VarHandle[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                handles[i] = privilegedLookup.unreflectVarHandle(fields[i]);
+            }
+            // Only a lookup with full privilege access may generate extractors. The others remember the caller of another module.
+            segments.add(new FieldPlan.Segment(declaringClass, fields, handles, null,
+                    privilegedLookup.hasFullPrivilegeAccess() ? privilegedLookup : null));
+        }
+        return new FieldPlan(clazz, segments, anyGenerated ? generated : null);
+    }
+
+    /**
+     * Describe why no privileged lookup could be acquired on a class. Only called once access has been denied,
+     * so that the exception is only built when it is needed.
+     */
+    private LoookupAcquisitionException denialOf(Class<?> target, MethodHandles.Lookup caller, MethodHandles.Lookup... fallbacks) {
+        try {
+            lookupManager.getPrivilegedLookup(target, caller, fallbacks);
+        } catch (LoookupAcquisitionException e) {
+            return e;
+        }
+        // Only if the lookup manager granted the access in between
+        return new LoookupAcquisitionException("Access to " + target.getName() + " was denied");
+    }
+
+    /**
+     * Determine from the declared types of its fields whether an object may contain an instance of a target type.
+     * The analysis is conservative: false is only returned when it is certain that no instance can be found.
+     *
+     * @param type       the exact runtime type of the object
+     * @param targetType the sought type
+     * @return false if no instance of targetType can be reached through the content of an instance of type.
+     */
+    public boolean mayContain(Class<?> type, Class<?> targetType) {
+        return new TypeReachability(this, targetType).mayContain(type);
+    }
+
+    /**
+     * Determine from its declared type whether a field may hold an instance of a target type or lead to one.
+     * The analysis is conservative: false is only returned when it is certain that no instance can be found.
+     *
+     * @param declaredType the declared type of the field
+     * @param targetType   the sought type
+     * @return false if no value held by a field of declaredType can be or lead to an instance of targetType.
+     */
+    public boolean mayLeadTo(Class<?> declaredType, Class<?> targetType) {
+        return new TypeReachability(this, targetType).mayLeadTo(declaredType);
     }
 
     /**
@@ -129,6 +260,20 @@ public sealed class ClassInspector permits CachingClassInspector {
         return targetType.isAssignableFrom(value.getClass());
     }
 
+    /**
+     * Resolve the declared types of the elements held by a container field from its generic signature:
+     * the element type of an Iterable or an Optional, or the key and value types of a Map.
+     * Only the containers of the JDK are resolved. The result is computed once per declaring class.
+     *
+     * @param field the field holding the container
+     * @return the raw element types, the key type before the value type for maps.
+     * Null if the field does not hold a container of the JDK, or if its type is raw or has wildcard or type variable arguments.
+     */
+    @Nullable
+    public static List<Class<?>> getElementTypes(Field field) {
+        return ElementTypes.of(field);
+    }
+
     /**
      * Checks if the given class is one for a wrapper of a primitive type.
      * @param clazz the type
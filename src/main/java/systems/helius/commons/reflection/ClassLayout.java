@@ -0,0 +1,193 @@
+package systems.helius.commons.reflection;
+
+import systems.helius.commons.annotations.Unstable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields of a class and of its superclasses, in flat arrays.
+ * Obtained through {@link ClassInspector#getLayout(Class)}.
+ * <p>
+ * The instance fields come first, grouped by declaring class from the class itself up to the top-most class of its hierarchy,
+ * as in {@link ClassInspector#getAllFieldsHierarchical(Class)}. The static fields follow them, in the same order.
+ * Every field has precomputed flags, so that consumers never need to inspect its modifiers or type again.
+ * </p>
+ * Instances are immutable.
+ */
+@Unstable
+public final class ClassLayout {
+    /**
+     * The field holds a reference.
+     */
+    public static final int REFERENCE = 1;
+    /**
+     * The field holds a primitive value.
+     */
+    public static final int PRIMITIVE = 1 << 1;
+    public static final int STATIC = 1 << 2;
+    public static final int FINAL = 1 << 3;
+    public static final int SYNTHETIC = 1 << 4;
+    /**
+     * The field holds an array whose components are references, such as an Object[] or an int[][].
+     */
+    public static final int ARRAY_OF_REFERENCES = 1 << 5;
+    /**
+     * The field holds an array whose components are primitive values, such as an int[].
+     */
+    public static final int ARRAY_OF_PRIMITIVES = 1 << 6;
+
+    private final Class<?> type;
+    private final Field[] fields;
+    private final Class<?>[] declaringClasses;
+    private final int[] flags;
+    private final int instanceFieldCount;
+    /**
+     * The classes of the hierarchy, including those that declare no instance field.
+     */
+    private final Class<?>[] groupClasses;
+    /**
+     * The first index of the instance fields of each group, followed by the instance field count.
+     */
+    private final int[] groupStarts;
+    /**
+     * The instance fields of each group, sliced once from the fields.
+     */
+    private final Field[][] groupFields;
+
+    private ClassLayout(Class<?> type, Field[] fields, int instanceFieldCount, Class<?>[] groupClasses, int[] groupStarts) {
+        this.type = type;
+        this.fields = fields;
+        this.instanceFieldCount = instanceFieldCount;
+        this.groupClasses = groupClasses;
+        this.groupStarts = groupStarts;
+        this.declaringClasses = new Class<?>[fields.length];
+        this.flags = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            declaringClasses[i] = fields[i].getDeclaringClass();
+            flags[i] = flagsOf(fields[i]);
+        }
+        this.groupFields = new Field[groupClasses.length][];
+        for (int group = 0; group < groupClasses.length; group++) {
+            groupFields[group] = Arrays.copyOfRange(fields, groupStarts[group], groupStarts[group + 1]);
+        }
+    }
+
+    /**
+     * @param type      the class laid out
+     * @param hierarchy the fields of type by declaring class, as returned by {@link ClassInspector#getAllFieldsHierarchical(Class)}.
+     */
+    static ClassLayout of(Class<?> type, Map<Class<?>, List<Field>> hierarchy) {
+        int size = 0;
+        for (List<Field> declared : hierarchy.values()) {
+            size += declared.size();
+        }
+        Field[] fields = new Field[size];
+        Field[] statics = new Field[size];
+        int instanceCount = 0;
+        int staticCount = 0;
+        var groupClasses = new Class<?>[hierarchy.size()];
+        var groupStarts = new int[hierarchy.size() + 1];
+        int group = 0;
+        for (Map.Entry<Class<?>, List<Field>> declared : hierarchy.entrySet()) {
+            groupClasses[group] = declared.getKey();
+            groupStarts[group++] = instanceCount;
+            for (Field field : declared.getValue()) {
+                if (Modifier.isStatic(field.getModifiers()))
+                    statics[staticCount++] = field;
+                else
+                    fields[instanceCount++] = field;
+            }
+        }
+        groupStarts[group] = instanceCount;
+        System.arraycopy(statics, 0, fields, instanceCount, staticCount);
+        return new ClassLayout(type, fields, instanceCount, groupClasses, groupStarts);
+    }
+
+    private static int flagsOf(Field field) {
+        int modifiers = field.getModifiers();
+        Class<?> fieldType = field.getType();
+        int result = fieldType.isPrimitive() ? PRIMITIVE : REFERENCE;
+        if (Modifier.isStatic(modifiers))
+            result |= STATIC;
+        if (Modifier.isFinal(modifiers))
+            result |= FINAL;
+        if (field.isSynthetic())
+            result |= SYNTHETIC;
+        if (fieldType.isArray())
+            result |= fieldType.getComponentType().isPrimitive() ? ARRAY_OF_PRIMITIVES : ARRAY_OF_REFERENCES;
+        return result;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return the number of fields, static fields included.
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * @return the number of instance fields, which are at the indexes [0, instanceFieldCount).
+     */
+    public int instanceFieldCount() {
+        return instanceFieldCount;
+    }
+
+    public Field getField(int index) {
+        return fields[index];
+    }
+
+    public Class<?> getDeclaringClass(int index) {
+        return declaringClasses[index];
+    }
+
+    /**
+     * @return the flags of the field, a combination of the constants of this class.
+     */
+    public int getFlags(int index) {
+        return flags[index];
+    }
+
+    public boolean hasFlag(int index, int flag) {
+        return (flags[index] & flag) != 0;
+    }
+
+    /**
+     * @return the number of classes in the hierarchy, each forming a group of instance fields.
+     */
+    public int groupCount() {
+        return groupClasses.length;
+    }
+
+    public Class<?> getGroupClass(int group) {
+        return groupClasses[group];
+    }
+
+    /**
+     * @return the index of the first instance field declared by the class of the group.
+     */
+    public int groupStart(int group) {
+        return groupStarts[group];
+    }
+
+    /**
+     * @return the index following the last instance field declared by the class of the group.
+     */
+    public int groupEnd(int group) {
+        return groupStarts[group + 1];
+    }
+
+    /**
+     * @return the instance fields declared by the class of the group. Shared by every caller: must not be modified.
+     */
+    Field[] getGroupFields(int group) {
+        return groupFields[group];
+    }
+}
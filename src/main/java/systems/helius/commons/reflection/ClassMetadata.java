@@ -0,0 +1,292 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Everything a {@link CachingClassInspector} knows of a single class.
+ * <p>
+ * Instances are held by a {@link ClassValue}, so they are reclaimed along with the class they describe.
+ * Each piece of metadata is computed once, by the first thread that needs it, while the other threads wait for its result.
+ * Reads of a piece already computed take no lock.
+ * </p>
+ * <p>
+ * The lookup classes of the field plans and handles and the target types of the verdicts are only referenced weakly,
+ * and the field plans only keep the privileged lookups that have full privilege access, which remember no caller of another module.
+ * The metadata of a class therefore never keeps alive the class loader of another class.
+ * The privileged lookups cached by a {@link CachingLookupManager} are held apart from this metadata.
+ * </p>
+ */
+final class ClassMetadata {
+    private static final ContextEntry[] NO_ENTRIES = new ContextEntry[0];
+    private static final Verdict[] NO_VERDICTS = new Verdict[0];
+
+    private final Object hierarchyLock = new Object();
+    private final Object verdictsLock = new Object();
+
+    private volatile Map<Class<?>, List<Field>> hierarchy;
+    private volatile List<Field> flat;
+    private volatile ClassLayout layout;
+    private final ByContext<FieldPlan> plans = new ByContext<>();
+    private final ByContext<FieldHandles> handles = new ByContext<>();
+    private volatile Verdict[] containments = NO_VERDICTS;
+    private volatile Verdict[] leadings = NO_VERDICTS;
+
+    /**
+     * A value resolved for the access rights of a lookup context.
+     */
+    private record ContextEntry(WeakReference<Class<?>> lookupClass, int lookupModes, Object value) {
+        boolean isFor(MethodHandles.Lookup context) {
+            return lookupClass.get() == context.lookupClass() && lookupModes == context.lookupModes();
+        }
+
+        boolean isLive() {
+            return lookupClass.get() != null;
+        }
+    }
+
+    /**
+     * @param dependencies the names of the classes the verdict depends on. Empty if they are unknown.
+     */
+    private record Verdict(WeakReference<Class<?>> targetType, boolean value, List<String> dependencies) {
+    }
+
+    /**
+     * Resolves a verdict of the reachability analysis.
+     */
+    @FunctionalInterface
+    interface VerdictResolver {
+        /**
+         * @param targetType   the sought type
+         * @param dependencies receives the names of the classes the verdict depends on, if they are known.
+         * @return the verdict
+         */
+        boolean resolve(Class<?> targetType, List<String> dependencies);
+    }
+
+    @FunctionalInterface
+    interface VerdictVisitor {
+        /**
+         * @param containment  true for a verdict of {@link ClassInspector#mayContain(Class, Class)},
+         *                     false for one of {@link ClassInspector#mayLeadTo(Class, Class)}.
+         */
+        void visit(boolean containment, Class<?> targetType, boolean value, List<String> dependencies);
+    }
+
+    @FunctionalInterface
+    interface Resolver<R> {
+        R resolve() throws IllegalAccessException;
+    }
+
+    /**
+     * Values resolved once per lookup context.
+     */
+    private static final class ByContext<R> {
+        private volatile ContextEntry[] entries = NO_ENTRIES;
+
+        R get(MethodHandles.Lookup context, Resolver<R> resolve) throws IllegalAccessException {
+            R value = find(entries, context);
+            if (value == null) {
+                synchronized (this) {
+                    ContextEntry[] current = entries;
+                    value = find(current, context);
+                    if (value == null) {
+                        value = resolve.resolve();
+                        entries = append(current, new ContextEntry(new WeakReference<>(context.lookupClass()), context.lookupModes(), value),
+                                ContextEntry::isLive, ContextEntry[]::new);
+                    }
+                }
+            }
+            return value;
+        }
+
+        @Nullable
+        @SuppressWarnings("unchecked")
+        private R find(ContextEntry[] current, MethodHandles.Lookup context) {
+            for (ContextEntry entry : current) {
+                if (entry.isFor(context))
+                    return (R) entry.value();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param compute the hierarchy of the class, called at most once.
+     * @return the unmodifiable hierarchy of the class.
+     */
+    Map<Class<?>, List<Field>> getHierarchy(Supplier<Map<Class<?>, List<Field>>> compute) {
+        Map<Class<?>, List<Field>> result = hierarchy;
+        if (result == null) {
+            synchronized (hierarchyLock) {
+                result = hierarchy;
+                if (result == null) {
+                    var copy = new LinkedHashMap<Class<?>, List<Field>>();
+                    for (Map.Entry<Class<?>, List<Field>> entry : compute.get().entrySet()) {
+                        copy.put(entry.getKey(), List.copyOf(entry.getValue()));
+                    }
+                    result = Collections.unmodifiableMap(copy);
+                    hierarchy = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param compute the fields of the class and its superclasses, called at most once.
+     * @return the unmodifiable list of the fields.
+     */
+    List<Field> getFlat(Supplier<List<Field>> compute) {
+        List<Field> result = flat;
+        if (result == null) {
+            synchronized (hierarchyLock) {
+                result = flat;
+                if (result == null) {
+                    result = List.copyOf(compute.get());
+                    flat = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param compute the layout of the class, called at most once.
+     */
+    ClassLayout getLayout(Supplier<ClassLayout> compute) {
+        ClassLayout result = layout;
+        if (result == null) {
+            synchronized (hierarchyLock) {
+                result = layout;
+                if (result == null) {
+                    result = compute.get();
+                    layout = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param context the context the plan is resolved for
+     * @param resolve resolves the plan, called at most once per context.
+     * @return the plan to read the instance fields of the class from the context.
+     * @throws IllegalAccessException if the resolution failed. Failed resolutions are not kept.
+     */
+    FieldPlan getPlan(MethodHandles.Lookup context, Resolver<FieldPlan> resolve) throws IllegalAccessException {
+        return plans.get(context, resolve);
+    }
+
+    /**
+     * @param context the context the handles are resolved for
+     * @param resolve resolves the handles, called at most once per context.
+     * @return the handles of all the fields of the class from the context.
+     * @throws IllegalAccessException if the resolution failed. Failed resolutions are not kept.
+     */
+    FieldHandles getHandles(MethodHandles.Lookup context, Resolver<FieldHandles> resolve) throws IllegalAccessException {
+        return handles.get(context, resolve);
+    }
+
+    /**
+     * @return the verdict of {@link ClassInspector#mayContain(Class, Class)} on the target type, or null if it is not resolved yet.
+     */
+    @Nullable
+    Boolean findContainment(Class<?> targetType) {
+        return findVerdict(containments, targetType);
+    }
+
+    boolean getContainment(Class<?> targetType, VerdictResolver compute) {
+        Boolean verdict = findVerdict(containments, targetType);
+        if (verdict == null) {
+            synchronized (verdictsLock) {
+                verdict = findVerdict(containments, targetType);
+                if (verdict == null) {
+                    Verdict resolved = resolve(targetType, compute);
+                    containments = append(containments, resolved, ClassMetadata::isLive, Verdict[]::new);
+                    verdict = resolved.value();
+                }
+            }
+        }
+        return verdict;
+    }
+
+    /**
+     * @return the verdict of {@link ClassInspector#mayLeadTo(Class, Class)} on the target type, or null if it is not resolved yet.
+     */
+    @Nullable
+    Boolean findLeading(Class<?> targetType) {
+        return findVerdict(leadings, targetType);
+    }
+
+    boolean getLeading(Class<?> targetType, VerdictResolver compute) {
+        Boolean verdict = findVerdict(leadings, targetType);
+        if (verdict == null) {
+            synchronized (verdictsLock) {
+                verdict = findVerdict(leadings, targetType);
+                if (verdict == null) {
+                    Verdict resolved = resolve(targetType, compute);
+                    leadings = append(leadings, resolved, ClassMetadata::isLive, Verdict[]::new);
+                    verdict = resolved.value();
+                }
+            }
+        }
+        return verdict;
+    }
+
+    /**
+     * Visit the verdicts whose target type is still alive.
+     */
+    void forEachVerdict(VerdictVisitor visitor) {
+        visitVerdicts(true, containments, visitor);
+        visitVerdicts(false, leadings, visitor);
+    }
+
+    private static Verdict resolve(Class<?> targetType, VerdictResolver compute) {
+        List<String> dependencies = new ArrayList<>();
+        boolean value = compute.resolve(targetType, dependencies);
+        return new Verdict(new WeakReference<>(targetType), value, List.copyOf(dependencies));
+    }
+
+    private static void visitVerdicts(boolean containment, Verdict[] verdicts, VerdictVisitor visitor) {
+        for (Verdict verdict : verdicts) {
+            Class<?> targetType = verdict.targetType().get();
+            if (targetType != null)
+                visitor.visit(containment, targetType, verdict.value(), verdict.dependencies());
+        }
+    }
+
+    @Nullable
+    private static Boolean findVerdict(Verdict[] verdicts, Class<?> targetType) {
+        for (Verdict verdict : verdicts) {
+            if (verdict.targetType().get() == targetType)
+                return verdict.value();
+        }
+        return null;
+    }
+
+    private static boolean isLive(Verdict verdict) {
+        return verdict.targetType().get() != null;
+    }
+
+    /**
+     * Copy the entries still alive along with a new one, for the readers to never see an array being modified.
+     */
+    private static <E> E[] append(E[] entries, E added, Predicate<E> isLive, IntFunction<E[]> allocate) {
+        E[] copy = allocate.apply(entries.length + 1);
+        int size = 0;
+        for (E entry : entries) {
+            if (isLive.test(entry))
+                copy[size++] = entry;
+        }
+        copy[size++] = added;
+        return size == copy.length ? copy : Arrays.copyOf(copy, size);
+    }
+}
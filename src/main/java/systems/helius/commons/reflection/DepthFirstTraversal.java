@@ -0,0 +1,85 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.Field;
+
+/**
+ * Iterative depth-first traversal of an object graph.
+ * <p>
+ * The objects left to visit are kept on a {@link WorkStack} instead of the call stack,
+ * so the depth of the object graph is only bounded by the heap.
+ * Children are popped in the order they were extracted, which visits the objects
+ * in the same order as the recursive search of {@link BeanIntrospector}.
+ * </p>
+ * @param <T> the target type
+ */
+final class DepthFirstTraversal<T> {
+    private final BeanIntrospector introspector;
+    private final IntrospectionContext<T> context;
+    private final IntrospectionSettings settings;
+    private final WorkStack stack;
+    private final StackingSink sink;
+
+    DepthFirstTraversal(BeanIntrospector introspector,
+                        @Nullable Object root,
+                        IntrospectionContext<T> context,
+                        IntrospectionSettings settings,
+                        WorkStack stack) {
+        this.introspector = introspector;
+        this.context = context;
+        this.settings = settings;
+        this.stack = stack;
+        this.sink = new StackingSink(stack, field -> introspector.mayLeadToTarget(field, context, settings));
+        if (root != null)
+            stack.push(root, null, 0);
+    }
+
+    /**
+     * Visit the object graph until the next instance of the target type is found.
+     * @return the next instance found. Null once the whole graph has been visited.
+     * @throws TracedAccessException if an access failure occurs and the settings require to fail-fast.
+     */
+    @Nullable
+    T next() throws TracedAccessException {
+        while (!stack.isEmpty()) {
+            T match = step();
+            if (match != null)
+                return match;
+        }
+        return null;
+    }
+
+    /**
+     * Visit the object on top of the stack and push its content.
+     * The stack must not be empty.
+     * @return the visited object if it is an instance of the target type. Null otherwise.
+     * @throws TracedAccessException if an access failure occurs and the settings require to fail-fast.
+     */
+    @Nullable
+    T step() throws TracedAccessException {
+        Object current = stack.peekValue();
+        Field holdingField = stack.peekField();
+        boolean element = stack.peekElement();
+        int depth = stack.peekDepth();
+        stack.pop();
+
+        if (depth >= settings.getMaxDepth() || !context.visited().add(current))
+            return null;
+
+        boolean match = ClassInspector.evaluateTypingMatch(context.targetType(), current,
+                (holdingField != null ? holdingField.getType() : null));
+        if ((!match || settings.isEnterTargetType())
+                && introspector.mayEnter(current.getClass(), context, settings)) {
+            pushContent(current, holdingField, element, depth);
+        }
+        //noinspection unchecked covered by evaluateTypingMatch
+        return match ? (T) current : null;
+    }
+
+    private void pushContent(Object current, @Nullable Field holdingField, boolean element, int depth) throws TracedAccessException {
+        final int from = sink.open(depth + 1);
+        introspector.extractContent(current, holdingField, element, context, settings, sink);
+        stack.reverseFrom(from);
+    }
+}
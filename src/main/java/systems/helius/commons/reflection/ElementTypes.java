@@ -0,0 +1,74 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The declared element types of the container fields of each class,
+ * resolved once per class from the generic signatures of its fields.
+ * @see ClassInspector#getElementTypes(Field)
+ */
+final class ElementTypes {
+    /**
+     * Key: field name. Only holds the container fields whose element types are known.
+     */
+    private static final ClassValue<Map<String, List<Class<?>>>> BY_CLASS = new ClassValue<>() {
+        @Override
+        protected Map<String, List<Class<?>>> computeValue(Class<?> type) {
+            Map<String, List<Class<?>>> resolved = new HashMap<>();
+            for (Field field : type.getDeclaredFields()) {
+                List<Class<?>> elementTypes = resolve(field);
+                if (elementTypes != null)
+                    resolved.put(field.getName(), elementTypes);
+            }
+            return resolved.isEmpty() ? Map.of() : resolved;
+        }
+    };
+
+    private ElementTypes() {}
+
+    @Nullable
+    static List<Class<?>> of(Field field) {
+        return BY_CLASS.get(field.getDeclaringClass()).get(field.getName());
+    }
+
+    @Nullable
+    private static List<Class<?>> resolve(Field field) {
+        Class<?> declared = field.getType();
+        int count;
+        if (Map.class.isAssignableFrom(declared))
+            count = 2;
+        else if (Iterable.class.isAssignableFrom(declared) || declared == Optional.class)
+            count = 1;
+        else
+            return null;
+        // The type parameters of the containers of the JDK are their element types, in order
+        if (declared.getClassLoader() != null || declared.getTypeParameters().length != count)
+            return null;
+
+        Type genericType;
+        try {
+            genericType = field.getGenericType();
+        } catch (TypeNotPresentException | MalformedParameterizedTypeException | GenericSignatureFormatError e) {
+            return null;
+        }
+        if (!(genericType instanceof ParameterizedType parameterized))
+            return null; // Raw type
+        Type[] arguments = parameterized.getActualTypeArguments();
+        Class<?>[] elementTypes = new Class<?>[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof Class<?> argument)
+                elementTypes[i] = argument;
+            else if (arguments[i] instanceof ParameterizedType argument && argument.getRawType() instanceof Class<?> raw)
+                elementTypes[i] = raw;
+            else
+                return null; // Wildcards and type variables
+        }
+        return List.of(elementTypes);
+    }
+}
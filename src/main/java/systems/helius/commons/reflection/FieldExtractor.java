@@ -0,0 +1,31 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.annotations.Internal;
+import systems.helius.commons.reflection.accessors.ContentSink;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads the instance fields declared by a single class with direct field accesses.
+ * Implementations are hidden classes generated by {@link FieldExtractorGenerator},
+ * or classes generated at compile time for the classes annotated with {@link systems.helius.commons.annotations.Introspectable}.
+ */
+@Internal
+public interface FieldExtractor {
+    /**
+     * Push the value of every field into a sink.
+     * @param target an instance of the declaring class of the fields
+     * @param fields the fields to read, in the order the extractor was generated for.
+     * @param sink   receives the non-null values.
+     */
+    void extract(Object target, Field[] fields, ContentSink sink);
+
+    /**
+     * Called by the generated code for each field, so that it needs no branching.
+     */
+    static void push(ContentSink sink, @Nullable Object value, Field field) {
+        if (value != null)
+            sink.accept(value, field);
+    }
+}
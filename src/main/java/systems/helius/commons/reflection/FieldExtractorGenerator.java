@@ -0,0 +1,269 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.reflection.accessors.ContentSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates {@link FieldExtractor}s as hidden classes nested in the declaring class of the fields they read.
+ * <p>
+ * Being a nestmate of the declaring class, a generated extractor reads even the private fields with plain getfield instructions,
+ * which the JIT compiles to direct loads without the dispatch of VarHandles.
+ * The extract method of a generated class reads every field in order and has no branch:
+ * <pre>
+ * FieldExtractor.push(sink, ((DeclaringClass) target).field0, fields[0]);
+ * FieldExtractor.push(sink, Integer.valueOf(((DeclaringClass) target).field1), fields[1]);
+ * ...
+ * </pre>
+ * Without branches, the class file needs no stack map frames and is simple enough to be written by hand.
+ * </p>
+ */
+final class FieldExtractorGenerator {
+    /**
+     * Generated code is bounded by the maximal length of a method; classes with more fields are read through VarHandles.
+     */
+    static final int MAX_FIELDS = 2048;
+
+    private static final int CLASS_VERSION = 61; // Java 17
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int ALOAD = 0x19;
+    private static final int ASTORE = 0x3a;
+    private static final int SIPUSH = 0x11;
+    private static final int AALOAD = 0x32;
+    private static final int GETFIELD = 0xb4;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int CHECKCAST = 0xc0;
+    private static final int RETURN = 0xb1;
+
+    private static final String EXTRACTOR = internalName(FieldExtractor.class);
+    private static final String PUSH_DESCRIPTOR = "(" + ContentSink.class.descriptorString()
+            + "Ljava/lang/Object;" + Field.class.descriptorString() + ")V";
+    private static final String EXTRACT_DESCRIPTOR = "(Ljava/lang/Object;" + Field[].class.descriptorString()
+            + ContentSink.class.descriptorString() + ")V";
+
+    private FieldExtractorGenerator() {}
+
+    /**
+     * Generate an extractor for the given fields.
+     * @param declaringClass the class that declares all the fields.
+     * @param fields         the instance fields to read, in the order they must be pushed.
+     * @param lookup         a lookup on the declaring class with full privilege access.
+     * @return the extractor or null if none can be generated for this class, in which case the fields must be read otherwise.
+     */
+    @Nullable
+    static FieldExtractor generate(Class<?> declaringClass, Field[] fields, MethodHandles.Lookup lookup) {
+        if (fields.length > MAX_FIELDS
+                || declaringClass.isHidden()
+                || lookup.lookupClass() != declaringClass
+                || !lookup.hasFullPrivilegeAccess())
+            return null;
+
+        byte[] bytes = writeClass(declaringClass, fields);
+        try {
+            MethodHandles.Lookup extractorLookup = lookup.defineHiddenClass(bytes, true, MethodHandles.Lookup.ClassOption.NESTMATE);
+            return (FieldExtractor) extractorLookup.lookupClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            // Such as when the class loader of the declaring class cannot see this library
+            return null;
+        }
+    }
+
+    private static byte[] writeClass(Class<?> declaringClass, Field[] fields) {
+        var pool = new ConstantPool();
+        String declaring = internalName(declaringClass);
+        int thisClass = pool.classRef(declaring + "$$HeliusFieldExtractor");
+        int superClass = pool.classRef("java/lang/Object");
+        int extractorInterface = pool.classRef(EXTRACTOR);
+        int code = pool.utf8("Code");
+
+        int constructorName = pool.utf8("<init>");
+        int constructorDescriptor = pool.utf8("()V");
+        byte[] constructorCode = {
+                (byte) ALOAD_0,
+                (byte) INVOKESPECIAL, 0, 0,
+                (byte) RETURN
+        };
+        int objectConstructor = pool.methodRef("java/lang/Object", "<init>", "()V");
+        constructorCode[2] = (byte) (objectConstructor >>> 8);
+        constructorCode[3] = (byte) objectConstructor;
+
+        int extractName = pool.utf8("extract");
+        int extractDescriptor = pool.utf8(EXTRACT_DESCRIPTOR);
+        byte[] extractCode = writeExtract(pool, declaring, fields);
+
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(extractorInterface);
+            out.writeShort(0); // Fields
+            out.writeShort(2); // Methods
+            writeMethod(out, constructorName, constructorDescriptor, code, 1, 1, constructorCode);
+            // Locals: this, target, fields, sink, casted target
+            // Stack: sink, value (2 slots if long or double), fields, index
+            writeMethod(out, extractName, extractDescriptor, code, 5, 5, extractCode);
+            out.writeShort(0); // Attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Impossible with an in-memory stream
+        }
+    }
+
+    private static byte[] writeExtract(ConstantPool pool, String declaring, Field[] fields) {
+        var code = new ByteArrayOutputStream();
+        int declaringClass = pool.classRef(declaring);
+        int push = pool.interfaceMethodRef(EXTRACTOR, "push", PUSH_DESCRIPTOR);
+
+        code.write(ALOAD_1);
+        writeInstruction(code, CHECKCAST, declaringClass);
+        code.write(ASTORE);
+        code.write(4);
+        for (int i = 0; i < fields.length; i++) {
+            Class<?> type = fields[i].getType();
+            code.write(ALOAD_3);
+            code.write(ALOAD);
+            code.write(4);
+            writeInstruction(code, GETFIELD, pool.fieldRef(declaring, fields[i].getName(), type.descriptorString()));
+            if (type.isPrimitive()) {
+                // Same boxing as VarHandle.get
+                Class<?> wrapper = MethodType.methodType(type).wrap().returnType();
+                writeInstruction(code, INVOKESTATIC, pool.methodRef(internalName(wrapper), "valueOf",
+                        "(" + type.descriptorString() + ")" + wrapper.descriptorString()));
+            }
+            code.write(ALOAD_2);
+            writeInstruction(code, SIPUSH, i);
+            code.write(AALOAD);
+            writeInstruction(code, INVOKESTATIC, push);
+        }
+        code.write(RETURN);
+        return code.toByteArray();
+    }
+
+    private static void writeInstruction(ByteArrayOutputStream code, int opcode, int operand) {
+        code.write(opcode);
+        code.write(operand >>> 8);
+        code.write(operand);
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // Exception table
+        out.writeShort(0); // Attributes
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    /**
+     * The constant pool of a class file, deduplicating its entries.
+     */
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int CLASS = 7;
+        private static final int FIELD_REF = 9;
+        private static final int METHOD_REF = 10;
+        private static final int INTERFACE_METHOD_REF = 11;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream entries = new DataOutputStream(bytes);
+        private int count = 1; // Index 0 is unused
+
+        int utf8(String value) {
+            return entry("U" + value, UTF8, out -> out.writeUTF(value));
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, CLASS, out -> out.writeShort(name));
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return memberRef(FIELD_REF, owner, name, descriptor);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return memberRef(METHOD_REF, owner, name, descriptor);
+        }
+
+        int interfaceMethodRef(String owner, String name, String descriptor) {
+            return memberRef(INTERFACE_METHOD_REF, owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            int ownerClass = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + ':' + descriptor, NAME_AND_TYPE, out -> {
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return entry(tag + owner + '.' + name + ':' + descriptor, tag, out -> {
+                out.writeShort(ownerClass);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int entry(String key, int tag, EntryWriter writer) {
+            Integer index = indexes.get(key);
+            if (index != null)
+                return index;
+            try {
+                entries.writeByte(tag);
+                writer.write(entries);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // Impossible with an in-memory stream
+            }
+            indexes.put(key, count);
+            return count++;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeShort(count);
+            entries.flush();
+            bytes.writeTo(out);
+        }
+
+        @FunctionalInterface
+        private interface EntryWriter {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+}
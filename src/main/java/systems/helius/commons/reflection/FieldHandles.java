@@ -0,0 +1,122 @@
+package systems.helius.commons.reflection;
+
+import systems.helius.commons.annotations.Unstable;
+
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * The resolved access handles of all the fields of a class, indexed by position.
+ * Obtained through {@link ClassInspector#getFieldHandles(Class, java.lang.invoke.MethodHandles.Lookup)}.
+ * <p>
+ * Fields are in the same order as {@link ClassInspector#getAllFieldsFlat(Class)}, static fields included.
+ * Instances are immutable: a {@link CachingClassInspector} resolves them once per class and lookup context,
+ * then shares them among all its callers.
+ * </p>
+ */
+@Unstable
+public final class FieldHandles {
+    private final Class<?> type;
+    private final Field[] fields;
+    private final VarHandle[] handles;
+    private final boolean[] statics;
+    private final List<Field> fieldList;
+    private final Map<Field, VarHandle> handlesByField;
+
+    FieldHandles(Class<?> type, Field[] fields, VarHandle[] handles) {
+        this.type = type;
+        this.fields = fields;
+        this.handles = handles;
+        this.statics = new boolean[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            statics[i] = Modifier.isStatic(fields[i].getModifiers());
+        }
+        this.fieldList = List.of(fields);
+        Map<Field, VarHandle> map = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i++) {
+            map.put(fields[i], handles[i]);
+        }
+        this.handlesByField = Collections.unmodifiableMap(map);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return the number of fields.
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * @return the fields, in an unmodifiable list.
+     */
+    public List<Field> getFields() {
+        return fieldList;
+    }
+
+    public Field getField(int index) {
+        return fields[index];
+    }
+
+    public VarHandle getHandle(int index) {
+        return handles[index];
+    }
+
+    /**
+     * @return the position of the field, or -1 if it is not a field of the class.
+     */
+    public int indexOf(Field field) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Read the value of a single field.
+     * @param target an instance of the class. Ignored if the field is static.
+     * @param index  the position of the field
+     * @return the value of the field, boxed if it is primitive.
+     */
+    public Object get(Object target, int index) {
+        return statics[index] ? handles[index].get() : handles[index].get(target);
+    }
+
+    /**
+     * Read the values of all the fields.
+     * @param target an instance of the class
+     * @return the value of each field at its position, boxed if it is primitive.
+     */
+    public Object[] readAll(Object target) {
+        Object[] values = new Object[fields.length];
+        readAll(target, values);
+        return values;
+    }
+
+    /**
+     * Read the values of all the fields into an existing array, which spares its allocation when reading many instances.
+     * @param target an instance of the class
+     * @param values receives the value of each field at its position. Must have a length of at least {@link #size()}.
+     */
+    public void readAll(Object target, Object[] values) {
+        Objects.requireNonNull(target);
+        if (values.length < fields.length)
+            throw new IllegalArgumentException("The array must have a length of at least " + fields.length + ", got: " + values.length);
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = statics[i] ? handles[i].get() : handles[i].get(target);
+        }
+    }
+
+    /**
+     * @return an unmodifiable map of each field to its handle, in the order of the fields.
+     */
+    public Map<Field, VarHandle> asMap() {
+        return handlesByField;
+    }
+}
@@ -0,0 +1,238 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.annotations.Internal;
+import systems.helius.commons.exceptions.LoookupAcquisitionException;
+import systems.helius.commons.reflection.accessors.ContentSink;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * The resolved means of reading the instance fields of a class.
+ * A plan is built once per class and lookup context, then reused for every instance of that class.
+ * <p>
+ * Fields are grouped by declaring class in the same order as the groups of the {@link ClassLayout} of the class.
+ * Static fields are excluded.
+ * </p>
+ */
+@Internal
+public final class FieldPlan {
+    private final Class<?> type;
+    @Nullable
+    private final LoookupAcquisitionException failure;
+    private final List<Segment> segments;
+    private final int size;
+
+    /**
+     * Number of times the fields were read, counted until extractors are generated.
+     * Updated without synchronization since it only needs to be approximately right.
+     */
+    private int reads;
+    /**
+     * The extractor of each segment, once generated. Null entries for the segments that must be read through their handles.
+     */
+    @Nullable
+    private volatile FieldExtractor[] extractors;
+    /**
+     * The extractor of each segment whose declaring class has {@link GeneratedMetadata}, null for the other segments.
+     * Null if no segment has any.
+     */
+    @Nullable
+    private final FieldExtractor[] generatedExtractors;
+
+    /**
+     * The fields declared by a single class of the hierarchy and their access handles.
+     * The handles and the privileged lookup that created them stay within this package:
+     * a plan is shared by all the searches, and may have been built with more access than its next user has.
+     */
+    public static final class Segment {
+        private final Class<?> declaringClass;
+        private final Field[] fields;
+        private final VarHandle[] handles;
+        @Nullable
+        private final LoookupAcquisitionException failure;
+        @Nullable
+        private final MethodHandles.Lookup lookup;
+        private final List<Field> fieldList;
+
+        /**
+         * @param declaringClass the class that declares the fields
+         * @param fields         the instance fields declared by the class
+         * @param handles        the handle of each field, at the same index as the field.
+         *                       Empty if the segment failed or if it is read by the {@link GeneratedMetadata} of its declaring class.
+         * @param failure        if not null, no privileged access could be acquired on the declaring class
+         *                       and the fields of this segment cannot be read.
+         * @param lookup         the privileged lookup on the declaring class that created the handles, to generate extractors.
+         *                       Null if the segment has no handles or if the lookup has no full privilege access.
+         */
+        Segment(Class<?> declaringClass,
+                Field[] fields,
+                VarHandle[] handles,
+                @Nullable LoookupAcquisitionException failure,
+                @Nullable MethodHandles.Lookup lookup) {
+            this.declaringClass = declaringClass;
+            this.fields = fields;
+            this.handles = handles;
+            this.failure = failure;
+            this.lookup = lookup;
+            this.fieldList = List.of(fields);
+        }
+
+        public Class<?> declaringClass() {
+            return declaringClass;
+        }
+
+        /**
+         * @return the instance fields declared by the class, in the order they are read.
+         */
+        public List<Field> getFields() {
+            return fieldList;
+        }
+
+        /**
+         * @return if not null, no privileged access could be acquired on the declaring class
+         * and the fields of this segment cannot be read.
+         */
+        @Nullable
+        public LoookupAcquisitionException failure() {
+            return failure;
+        }
+
+        Field[] fields() {
+            return fields;
+        }
+
+        VarHandle[] handles() {
+            return handles;
+        }
+
+        @Nullable
+        MethodHandles.Lookup lookup() {
+            return lookup;
+        }
+    }
+
+    FieldPlan(Class<?> type, List<Segment> segments) {
+        this(type, segments, null);
+    }
+
+    /**
+     * @param generatedExtractors the extractor of each segment read by the {@link GeneratedMetadata} of its declaring class,
+     *                            null for the other segments.
+     */
+    FieldPlan(Class<?> type, List<Segment> segments, @Nullable FieldExtractor[] generatedExtractors) {
+        this.type = type;
+        this.failure = null;
+        this.segments = List.copyOf(segments);
+        this.size = segments.stream().mapToInt(segment -> segment.fields().length).sum();
+        this.generatedExtractors = generatedExtractors;
+    }
+
+    FieldPlan(Class<?> type, LoookupAcquisitionException failure) {
+        this.type = type;
+        this.failure = failure;
+        this.segments = List.of();
+        this.size = 0;
+        this.generatedExtractors = null;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return if not null, no privileged access could be acquired on the planned class itself.
+     */
+    @Nullable
+    public LoookupAcquisitionException getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the segments of the plan, from the planned class up to the top-most class of its hierarchy.
+     */
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return the number of fields in the plan, including those of failed segments.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the extractors generated at compile time, one per segment, or null if no segment has any.
+     * Entries are null for the segments that must be read through their handles.
+     * Unlike {@link #getExtractors(int)}, these are available from the first read.
+     */
+    @Nullable
+    FieldExtractor[] getGeneratedExtractors() {
+        return generatedExtractors;
+    }
+
+    /**
+     * Get the generated extractors of the segments, generating them once the fields have been read often enough.
+     * @param threshold the number of reads after which extractors are generated. Must be positive.
+     * @return the extractor of each segment, or null if they are not generated yet.
+     * Entries are null for the segments that must be read through their handles.
+     */
+    @Nullable
+    FieldExtractor[] getExtractors(int threshold) {
+        FieldExtractor[] generated = extractors;
+        if (generated != null)
+            return generated;
+        if (reads++ < threshold)
+            return null;
+        return generateExtractors();
+    }
+
+    /**
+     * Push the value of every readable field of an instance into a sink.
+     * The segments that failed are skipped.
+     * @param target an instance of the planned class
+     * @param extractorGenerationThreshold the number of reads after which extractors are generated. Not positive to never generate any.
+     * @param sink receives the non-null values with the field that holds them.
+     * @see IntrospectionSettings#getExtractorGenerationThreshold()
+     */
+    public void read(Object target, int extractorGenerationThreshold, ContentSink sink) {
+        FieldExtractor[] extractors = extractorGenerationThreshold > 0 ? getExtractors(extractorGenerationThreshold) : null;
+        if (extractors == null)
+            extractors = generatedExtractors;
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            Field[] fields = segment.fields;
+            if (extractors != null && extractors[s] != null) {
+                extractors[s].extract(target, fields, sink);
+                continue;
+            }
+            VarHandle[] handles = segment.handles;
+            // A segment whose lookup failed has no handles
+            for (int i = 0; i < handles.length; i++) {
+                Object value = handles[i].get(target);
+                if (value != null) {
+                    sink.accept(value, fields[i]);
+                }
+            }
+        }
+    }
+
+    private synchronized FieldExtractor[] generateExtractors() {
+        if (extractors == null) {
+            var generated = new FieldExtractor[segments.size()];
+            for (int i = 0; i < generated.length; i++) {
+                Segment segment = segments.get(i);
+                if (generatedExtractors != null && generatedExtractors[i] != null)
+                    generated[i] = generatedExtractors[i];
+                else if (segment.lookup() != null && segment.fields().length > 0)
+                    generated[i] = FieldExtractorGenerator.generate(segment.declaringClass(), segment.fields(), segment.lookup());
+            }
+            extractors = generated;
+        }
+        return extractors;
+    }
+}
@@ -0,0 +1,33 @@
+package systems.helius.commons.reflection;
+
+import systems.helius.commons.annotations.Internal;
+
+import java.util.List;
+
+/**
+ * Introspection metadata generated at compile time for a class annotated with
+ * {@link systems.helius.commons.annotations.Introspectable}.
+ * Implementations are generated by the helius-commons-processor annotation processor and must have a public no-arg constructor.
+ */
+@Internal
+public interface GeneratedMetadata extends FieldExtractor {
+    /**
+     * Suffix appended to the binary name of the annotated class, '$' of nested classes included, to name the generated class.
+     */
+    String SUFFIX = "_HeliusMetadata";
+
+    /**
+     * @return the annotated class.
+     */
+    Class<?> type();
+
+    /**
+     * @return the names of the instance fields declared by the annotated class, in the order they are extracted.
+     */
+    List<String> fieldNames();
+
+    /**
+     * @return the erased types of the instance fields declared by the annotated class, in the same order as {@link #fieldNames()}.
+     */
+    List<Class<?>> fieldTypes();
+}
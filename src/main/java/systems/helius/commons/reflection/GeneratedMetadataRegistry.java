@@ -0,0 +1,77 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.annotations.Introspectable;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds the {@link GeneratedMetadata} of the classes annotated with {@link Introspectable}.
+ * The search is done once per class.
+ */
+final class GeneratedMetadataRegistry {
+    private static final ClassValue<Optional<GeneratedMetadata>> METADATA = new ClassValue<>() {
+        @Override
+        protected Optional<GeneratedMetadata> computeValue(Class<?> type) {
+            return Optional.ofNullable(load(type));
+        }
+    };
+
+    private GeneratedMetadataRegistry() {}
+
+    /**
+     * @return the metadata generated for the class, or null if it is not annotated or its metadata cannot be loaded.
+     */
+    @Nullable
+    static GeneratedMetadata find(Class<?> type) {
+        return METADATA.get(type).orElse(null);
+    }
+
+    /**
+     * Order the instance fields declared by a class as the generated metadata of that class extracts them.
+     * @param declared the instance fields declared by the class
+     * @return the fields in the order of the metadata, or null if the metadata does not cover exactly these fields
+     * with the same types, such as when the class was recompiled without the annotation processor.
+     */
+    @Nullable
+    static Field[] match(GeneratedMetadata metadata, Field[] declared) {
+        List<String> names = metadata.fieldNames();
+        List<Class<?>> types = metadata.fieldTypes();
+        if (names.size() != declared.length || types.size() != declared.length)
+            return null;
+        Field[] ordered = new Field[declared.length];
+        for (int i = 0; i < ordered.length; i++) {
+            for (Field field : declared) {
+                // A stale metadata would access the field with its former type and fail to link
+                if (field.getName().equals(names.get(i)) && field.getType() == types.get(i)) {
+                    ordered[i] = field;
+                    break;
+                }
+            }
+            if (ordered[i] == null)
+                return null;
+        }
+        return ordered;
+    }
+
+    @Nullable
+    private static GeneratedMetadata load(Class<?> type) {
+        if (type.isHidden() || !type.isAnnotationPresent(Introspectable.class))
+            return null;
+        String generatedName = type.getName() + GeneratedMetadata.SUFFIX;
+        try {
+            Class<?> generated = Class.forName(generatedName, true, type.getClassLoader());
+            if (!GeneratedMetadata.class.isAssignableFrom(generated))
+                return null;
+            var metadata = (GeneratedMetadata) generated.getConstructor().newInstance();
+            // Fails to link if the metadata was generated by an older processor or against types that no longer exist
+            metadata.fieldTypes();
+            return metadata.type() == type ? metadata : null;
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            // Such as when the annotation processor did not run
+            return null;
+        }
+    }
+}
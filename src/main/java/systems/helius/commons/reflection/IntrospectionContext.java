@@ -13,6 +13,8 @@ import java.util.Set;
  * @param rootLookup
  * @param found
  * @param visited
+ * @param targetTypes every type sought by the introspection. Only holds the targetType unless several types are sought at once,
+ *                    in which case targetType is Object.
  * @param <T> the target type
  */
 @Internal
@@ -20,5 +22,14 @@ public record IntrospectionContext<T>(Class<T> targetType,
                                       MethodHandles.Lookup rootLookup,
                                       Set<T> found,
                                       Set<Object> visited,
-                                      ContentAccessor contentAccessor) {
+                                      ContentAccessor contentAccessor,
+                                      Set<Class<?>> targetTypes) {
+
+    public IntrospectionContext(Class<T> targetType,
+                                MethodHandles.Lookup rootLookup,
+                                Set<T> found,
+                                Set<Object> visited,
+                                ContentAccessor contentAccessor) {
+        this(targetType, rootLookup, found, visited, contentAccessor, Set.of(targetType));
+    }
 }
@@ -1,6 +1,44 @@
 package systems.helius.commons.reflection;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.*;
+import java.util.*;
+
 public class IntrospectionSettings {
+    /**
+     * Immutable value types of the JDK whose internals never need to be introspected.
+     * @see #leafTypes
+     */
+    public static final Set<Class<?>> DEFAULT_LEAF_TYPES = Set.of(
+            String.class,
+            BigInteger.class,
+            BigDecimal.class,
+            UUID.class,
+            URI.class,
+            Locale.class,
+            Instant.class,
+            Duration.class,
+            Period.class,
+            LocalDate.class,
+            LocalTime.class,
+            LocalDateTime.class,
+            OffsetTime.class,
+            OffsetDateTime.class,
+            ZonedDateTime.class,
+            Year.class,
+            YearMonth.class,
+            MonthDay.class,
+            ZoneOffset.class,
+            ZoneId.of("UTC").getClass() // ZoneRegion is not public
+    );
+
+    /**
+     * The number of distinct values of {@link #getDispatchFlags()}.
+     */
+    public static final int DISPATCH_FLAG_COMBINATIONS = 4;
+
     /**
      * If true (default), only fields and methods that may be accessed according to the rules will be made accessible.
      * If false, introspectors will throw an IllegalAccessException if faced with something it is not allowed to access.
@@ -49,6 +87,40 @@ public class IntrospectionSettings {
 
     protected int maxDepth = Integer.MAX_VALUE;
 
+    /**
+     * Types whose instances are matched against the target type, but never introspected.
+     * Contains the {@link #DEFAULT_LEAF_TYPES} by default.
+     * Only the exact types are considered: subclasses of a leaf type must be registered on their own.
+     */
+    protected Set<Class<?>> leafTypes = new HashSet<>(DEFAULT_LEAF_TYPES);
+    /**
+     * If true (default), enums declared by the JDK are treated as leaf types.
+     */
+    protected boolean jdkEnumsAsLeaves = true;
+
+    /**
+     * Decides which runtime infrastructure types (threads, class loaders, references...) are never introspected.
+     * @see BoundaryPolicy#DEFAULT_BOUNDARY_TYPES
+     */
+    protected BoundaryPolicy boundaryPolicy = BoundaryPolicy.defaults();
+
+    /**
+     * Number of times the fields of a class are read through VarHandles before a hidden class is generated
+     * to read them with direct field accesses instead.
+     * If not positive (default), no class is ever generated.
+     * The reads are counted on the {@link FieldPlan} of the class, so extractors are only generated when plans are reused,
+     * as with a {@link CachingClassInspector}. The classes on which no privileged lookup with full privilege access
+     * can be acquired keep being read through VarHandles.
+     * @see <a href="https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/lang/invoke/MethodHandles.Lookup.html#defineHiddenClass(byte%5B%5D,boolean,java.lang.invoke.MethodHandles.Lookup.ClassOption...)">Java 17 API: Lookup.defineHiddenClass</a>
+     */
+    protected int extractorGenerationThreshold = 0;
+
+    /**
+     * Which parts of the maps are traversed. {@link MapTraversalMode#AUTO} by default.
+     * Only applies to the maps whose content is read as such, so not when {@link #detailledMapCheck} is enabled.
+     */
+    protected MapTraversalMode mapTraversalMode = MapTraversalMode.AUTO;
+
     public boolean useSafeAccessCheck() {
         return safeAccessCheck;
     }
@@ -96,4 +168,74 @@ public class IntrospectionSettings {
     public void setMaxDepth(int maxDepth) {
         this.maxDepth = maxDepth;
     }
+
+    public Set<Class<?>> getLeafTypes() {
+        return leafTypes;
+    }
+
+    public void setLeafTypes(Set<Class<?>> leafTypes) {
+        this.leafTypes = leafTypes;
+    }
+
+    public void addLeafType(Class<?> leafType) {
+        leafTypes.add(leafType);
+    }
+
+    public boolean isJdkEnumsAsLeaves() {
+        return jdkEnumsAsLeaves;
+    }
+
+    public void setJdkEnumsAsLeaves(boolean jdkEnumsAsLeaves) {
+        this.jdkEnumsAsLeaves = jdkEnumsAsLeaves;
+    }
+
+    public BoundaryPolicy getBoundaryPolicy() {
+        return boundaryPolicy;
+    }
+
+    public void setBoundaryPolicy(BoundaryPolicy boundaryPolicy) {
+        this.boundaryPolicy = boundaryPolicy;
+    }
+
+    public int getExtractorGenerationThreshold() {
+        return extractorGenerationThreshold;
+    }
+
+    public void setExtractorGenerationThreshold(int extractorGenerationThreshold) {
+        this.extractorGenerationThreshold = extractorGenerationThreshold;
+    }
+
+    public MapTraversalMode getMapTraversalMode() {
+        return mapTraversalMode;
+    }
+
+    public void setMapTraversalMode(MapTraversalMode mapTraversalMode) {
+        this.mapTraversalMode = mapTraversalMode;
+    }
+
+    /**
+     * @return a combination of the settings that change which accessors accept a class, lower than {@link #DISPATCH_FLAG_COMBINATIONS}.
+     * The {@link systems.helius.commons.reflection.accessors.AccessorsChain} resolves the accessors of each class once per combination.
+     */
+    public int getDispatchFlags() {
+        return (detailledIterableCheck ? 1 : 0) | (detailledMapCheck ? 2 : 0);
+    }
+
+    /**
+     * Checks if instances of a type must not be introspected.
+     * @param type the exact type of an instance
+     * @return true if the type is one of the {@link #leafTypes} or, if enabled, an enum of the JDK.
+     */
+    public boolean isLeafType(Class<?> type) {
+        if (leafTypes.contains(type))
+            return true;
+        return jdkEnumsAsLeaves && isJdkEnum(type);
+    }
+
+    private static boolean isJdkEnum(Class<?> type) {
+        if (!Enum.class.isAssignableFrom(type))
+            return false;
+        ClassLoader loader = type.getClassLoader();
+        return loader == null || loader == ClassLoader.getPlatformClassLoader();
+    }
 }
@@ -45,6 +45,33 @@ public final class IntrospectionSettingsBuilder {
         return this;
     }
 
+    public IntrospectionSettingsBuilder withLeafTypes(Class<?>... leafTypes) {
+        for (Class<?> leafType : leafTypes) {
+            introspectionSettings.addLeafType(leafType);
+        }
+        return this;
+    }
+
+    public IntrospectionSettingsBuilder withJdkEnumsAsLeaves(boolean jdkEnumsAsLeaves) {
+        introspectionSettings.setJdkEnumsAsLeaves(jdkEnumsAsLeaves);
+        return this;
+    }
+
+    public IntrospectionSettingsBuilder withBoundaryPolicy(BoundaryPolicy boundaryPolicy) {
+        introspectionSettings.setBoundaryPolicy(boundaryPolicy);
+        return this;
+    }
+
+    public IntrospectionSettingsBuilder withExtractorGenerationThreshold(int extractorGenerationThreshold) {
+        introspectionSettings.setExtractorGenerationThreshold(extractorGenerationThreshold);
+        return this;
+    }
+
+    public IntrospectionSettingsBuilder withMapTraversalMode(MapTraversalMode mapTraversalMode) {
+        introspectionSettings.setMapTraversalMode(mapTraversalMode);
+        return this;
+    }
+
     public IntrospectionSettings build() {
         return introspectionSettings;
     }
@@ -1,5 +1,22 @@
 package systems.helius.commons.reflection;
 
-public interface Introspector {
+import systems.helius.commons.exceptions.IntrospectionException;
+
+import java.lang.invoke.MethodHandles.Lookup;
+import java.util.Set;
 
+/**
+ * Seeks instances of a type within an object graph.
+ */
+public interface Introspector {
+    /**
+     * Seek within the root and all children for instances of a given type.
+     * Warning! The returned set uses object identity (==), not equals() as is usually the case with sets.
+     * @param targetType instances to find must be of that type or a covalent type.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @return every instance found of the given type
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    <T> Set<T> seek(Class<T> targetType, Object root, Lookup context) throws IntrospectionException;
 }
@@ -0,0 +1,49 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.collections.IdentityHashSet;
+import systems.helius.commons.exceptions.IntrospectionException;
+
+import java.lang.invoke.MethodHandles.Lookup;
+import java.util.Set;
+
+/**
+ * Introspector that visits the object graph with an explicit work stack instead of recursive calls.
+ * <p>
+ * It finds the same instances as {@link BeanIntrospector#seek(Class, Object, Lookup)}, including when a maximum depth is set,
+ * but is not limited by the size of the call stack. Use it for deep structures such as long linked lists.
+ * </p>
+ */
+public class IterativeIntrospector extends BeanIntrospector {
+    public IterativeIntrospector() {
+        super();
+    }
+
+    public IterativeIntrospector(IntrospectionSettings defaults) {
+        super(defaults);
+    }
+
+    public IterativeIntrospector(ClassInspector classInspector) {
+        super(classInspector);
+    }
+
+    public IterativeIntrospector(@Nullable IntrospectionSettings defaults, @Nullable ClassInspector classInspector) {
+        super(defaults, classInspector);
+    }
+
+    /**
+     * Seek within the root and all children for instances of a given type.
+     * Warning! The returned set uses object identity (==), not equals() as is usually the case with sets.
+     * @param targetType instances to find must be of that type or a covalent type.
+     * @param root seek into
+     * @param context the context of the caller. Should always be MethodHandles.lookup();
+     * @return every instance found of the given type
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    @Override
+    public <T> Set<T> seek(Class<T> targetType, Object root, Lookup context) throws IntrospectionException {
+        Set<T> found = new IdentityHashSet<>();
+        walk(targetType, root, context, found::add);
+        return found;
+    }
+}
@@ -23,7 +23,7 @@ public class LookupManager {
         List<String> errorMessages;
         IllegalAccessException originalException;
         try {
-            return MethodHandles.privateLookupIn(target, caller);
+            return privateLookupIn(target, caller);
         } catch (IllegalAccessException e) {
             errorMessages = new LinkedList<>();
             errorMessages.add(e.getMessage());
@@ -32,13 +32,57 @@ public class LookupManager {
 
         for (var fallback : fallbacks) {
             try {
-                return MethodHandles.privateLookupIn(target, fallback);
+                return privateLookupIn(target, fallback);
             } catch (IllegalAccessException e) {
                 errorMessages.add(e.getMessage());
             }
         }
 
-        String message = "All access has been denied: " + String.join(", ", errorMessages);
-        throw new LoookupAcquisitionException(message, originalException);
+        throw new LoookupAcquisitionException(allDenied(errorMessages), originalException);
+    }
+
+    static String allDenied(List<String> errorMessages) {
+        return "All access has been denied: " + String.join(", ", errorMessages);
+    }
+
+    /**
+     * Attempts to get a privileged (private-level access) lookup on a target class, without reporting why it failed.
+     * Prefer this method over {@link #getPrivilegedLookup(Class, MethodHandles.Lookup, MethodHandles.Lookup...)}
+     * when failures are expected, since no exception is built for them.
+     *
+     * @param target        the class on which a privileged lookup is desired.
+     * @param caller        the lookup of the caller or, ideally, of the target class itself.
+     * @param fallbacks     (optional) fallback lookups that may be tried, such as the original context of the request.
+     * @return a privileged lookup or null if all access has been denied.
+     */
+    @Internal
+    @Nullable
+    public MethodHandles.Lookup findPrivilegedLookup(Class<?> target, MethodHandles.Lookup caller, MethodHandles.Lookup... fallbacks) {
+        MethodHandles.Lookup privileged = tryPrivateLookupIn(target, caller);
+        for (int i = 0; privileged == null && i < fallbacks.length; i++) {
+            privileged = tryPrivateLookupIn(target, fallbacks[i]);
+        }
+        return privileged;
+    }
+
+    /**
+     * A single attempt at acquiring a privileged lookup.
+     * @see MethodHandles#privateLookupIn(Class, MethodHandles.Lookup)
+     */
+    protected MethodHandles.Lookup privateLookupIn(Class<?> target, MethodHandles.Lookup caller) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(target, caller);
+    }
+
+    /**
+     * A single attempt at acquiring a privileged lookup.
+     * @return the privileged lookup or null if it was denied.
+     */
+    @Nullable
+    protected MethodHandles.Lookup tryPrivateLookupIn(Class<?> target, MethodHandles.Lookup caller) {
+        try {
+            return privateLookupIn(target, caller);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
     }
 }
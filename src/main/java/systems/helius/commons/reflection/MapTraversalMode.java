@@ -0,0 +1,26 @@
+package systems.helius.commons.reflection;
+
+/**
+ * Decides which parts of the maps are traversed by the accessors.
+ * @see IntrospectionSettings#getMapTraversalMode()
+ */
+public enum MapTraversalMode {
+    /**
+     * Only the keys are traversed.
+     */
+    KEYS_ONLY,
+    /**
+     * Only the values are traversed.
+     */
+    VALUES_ONLY,
+    /**
+     * Both the keys and the values are traversed, in a single pass over the entries.
+     */
+    BOTH,
+    /**
+     * The keys or the values are skipped when the declared generic type of the field holding the map guarantees
+     * that they cannot be any of the sought types nor contain them, such as the Integer keys of a Map&lt;Integer, Student&gt;.
+     * Otherwise, both are traversed.
+     */
+    AUTO
+}
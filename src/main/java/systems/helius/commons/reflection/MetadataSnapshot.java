@@ -0,0 +1,320 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+
+/**
+ * The verdicts of the reachability analysis of a {@link CachingClassInspector}, in a form that outlives the JVM.
+ * <p>
+ * Classes are identified by name and by a fingerprint of their class file: its size and modification time,
+ * or the version of the runtime for the classes of the JDK. Computing a fingerprint takes no reflection.
+ * Each verdict is stored with the names of the classes it depends on, that is those examined by the analysis.
+ * A verdict is only trusted once the fingerprints of all these classes match the classes currently loaded.
+ * That validation is done lazily, the first time the verdict is requested, and a stale verdict is discarded.
+ * </p>
+ * <p>
+ * The binary format is:
+ * <pre>
+ * int magic, short version
+ * int nameCount, then for each name: UTF name, long fingerprint
+ * int typeCount, then for each type: int name, int verdictCount,
+ *     then for each verdict: boolean containment, int targetType, boolean value, int dependencyCount, int[] dependencies
+ * </pre>
+ * Classes are referred to by their index in the table of names.
+ * </p>
+ */
+final class MetadataSnapshot {
+    private static final int MAGIC = 0x484C4D53; // HLMS
+    private static final short VERSION = 1;
+    /**
+     * The fingerprint of the classes that cannot be fingerprinted, such as generated ones.
+     */
+    static final long UNKNOWN = 0;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<String, Long> fingerprints;
+    /**
+     * Key: type name.
+     */
+    private final Map<String, ImportedType> types;
+    /**
+     * Whether the fingerprint of each class met matches that of the snapshot.
+     */
+    private final ClassValue<Boolean> validity = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            Long expected = fingerprints.get(type.getName());
+            return expected != null && expected != UNKNOWN && expected == fingerprint(type);
+        }
+    };
+
+    private record ImportedVerdict(boolean value, String[] dependencies) {
+    }
+
+    private record ImportedType(Map<String, ImportedVerdict> containments, Map<String, ImportedVerdict> leadings) {
+    }
+
+    private MetadataSnapshot(Map<String, Long> fingerprints, Map<String, ImportedType> types) {
+        this.fingerprints = fingerprints;
+        this.types = types;
+    }
+
+    /**
+     * Find a verdict of {@link ClassInspector#mayContain(Class, Class)}, validating it if needed.
+     * @param dependencies receives the dependencies of the verdict if it is found.
+     * @return the verdict, or null if it is unknown or stale.
+     */
+    @Nullable
+    Boolean findContainment(Class<?> type, Class<?> targetType, List<String> dependencies) {
+        ImportedType imported = types.get(type.getName());
+        return imported == null ? null : find(imported.containments(), type, targetType, dependencies);
+    }
+
+    /**
+     * Find a verdict of {@link ClassInspector#mayLeadTo(Class, Class)}, validating it if needed.
+     * @param dependencies receives the dependencies of the verdict if it is found.
+     * @return the verdict, or null if it is unknown or stale.
+     */
+    @Nullable
+    Boolean findLeading(Class<?> declaredType, Class<?> targetType, List<String> dependencies) {
+        ImportedType imported = types.get(declaredType.getName());
+        return imported == null ? null : find(imported.leadings(), declaredType, targetType, dependencies);
+    }
+
+    @Nullable
+    private Boolean find(Map<String, ImportedVerdict> verdicts, Class<?> type, Class<?> targetType, List<String> dependencies) {
+        ImportedVerdict verdict = verdicts.get(targetType.getName());
+        if (verdict == null)
+            return null;
+        if (!isValid(verdict, type, targetType)) {
+            verdicts.remove(targetType.getName());
+            return null;
+        }
+        dependencies.addAll(Arrays.asList(verdict.dependencies()));
+        return verdict.value();
+    }
+
+    private boolean isValid(ImportedVerdict verdict, Class<?> type, Class<?> targetType) {
+        if (!validity.get(type) || !validity.get(targetType))
+            return false;
+        ClassLoader loader = type.getClassLoader();
+        for (String dependency : verdict.dependencies()) {
+            try {
+                if (!validity.get(Class.forName(dependency, false, loader)))
+                    return false;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the verdicts of the given classes.
+     * Verdicts depending on a class that cannot be fingerprinted or found are left out.
+     */
+    static void write(OutputStream out, Collection<Class<?>> classes, Function<Class<?>, ClassMetadata> metadata) throws IOException {
+        Map<String, Integer> names = new LinkedHashMap<>();
+        Map<String, Long> nameFingerprints = new HashMap<>();
+        var typeBytes = new ByteArrayOutputStream();
+        var typeOut = new DataOutputStream(typeBytes);
+        int typeCount = 0;
+        for (Class<?> type : classes) {
+            long typeFingerprint = fingerprint(type);
+            if (typeFingerprint == UNKNOWN)
+                continue;
+            var verdictBytes = new ByteArrayOutputStream();
+            var verdictOut = new DataOutputStream(verdictBytes);
+            int[] verdictCount = {0};
+            metadata.apply(type).forEachVerdict((containment, targetType, value, dependencies) -> {
+                if (dependencies.isEmpty() && !value)
+                    return; // A negative verdict whose dependencies are unknown cannot be validated
+                long[] dependencyFingerprints = new long[dependencies.size()];
+                for (int i = 0; i < dependencies.size(); i++) {
+                    dependencyFingerprints[i] = fingerprintOf(dependencies.get(i), type.getClassLoader());
+                    if (dependencyFingerprints[i] == UNKNOWN)
+                        return;
+                }
+                long targetFingerprint = fingerprint(targetType);
+                if (targetFingerprint == UNKNOWN)
+                    return;
+                try {
+                    verdictOut.writeBoolean(containment);
+                    verdictOut.writeInt(indexOf(names, nameFingerprints, targetType.getName(), targetFingerprint));
+                    verdictOut.writeBoolean(value);
+                    verdictOut.writeInt(dependencies.size());
+                    for (int i = 0; i < dependencies.size(); i++) {
+                        verdictOut.writeInt(indexOf(names, nameFingerprints, dependencies.get(i), dependencyFingerprints[i]));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Impossible with an in-memory stream
+                }
+                verdictCount[0]++;
+            });
+            if (verdictCount[0] == 0)
+                continue;
+            typeOut.writeInt(indexOf(names, nameFingerprints, type.getName(), typeFingerprint));
+            typeOut.writeInt(verdictCount[0]);
+            verdictBytes.writeTo(typeOut);
+            typeCount++;
+        }
+
+        var data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(names.size());
+        for (String name : names.keySet()) {
+            data.writeUTF(name);
+            data.writeLong(nameFingerprints.get(name));
+        }
+        data.writeInt(typeCount);
+        typeOut.flush();
+        typeBytes.writeTo(data);
+        data.flush();
+    }
+
+    private static int indexOf(Map<String, Integer> names, Map<String, Long> fingerprints, String name, long fingerprint) {
+        fingerprints.putIfAbsent(name, fingerprint);
+        return names.computeIfAbsent(name, n -> names.size());
+    }
+
+    /**
+     * Read a snapshot written by {@link #write(OutputStream, Collection, Function)}.
+     * Nothing is validated until the verdicts are requested.
+     * @throws IOException if the stream could not be read or is not a snapshot of this version.
+     */
+    static MetadataSnapshot read(InputStream in) throws IOException {
+        var data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a metadata snapshot");
+        short version = data.readShort();
+        if (version != VERSION)
+            throw new IOException("Unsupported metadata snapshot version: " + version);
+
+        int nameCount = data.readInt();
+        String[] names = new String[nameCount];
+        Map<String, Long> fingerprints = new HashMap<>(nameCount * 2);
+        for (int i = 0; i < nameCount; i++) {
+            names[i] = data.readUTF();
+            fingerprints.put(names[i], data.readLong());
+        }
+        int typeCount = data.readInt();
+        Map<String, ImportedType> types = new ConcurrentHashMap<>(typeCount * 2);
+        for (int t = 0; t < typeCount; t++) {
+            String type = nameAt(names, data.readInt());
+            var imported = new ImportedType(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+            int verdictCount = data.readInt();
+            for (int v = 0; v < verdictCount; v++) {
+                boolean containment = data.readBoolean();
+                String targetType = nameAt(names, data.readInt());
+                boolean value = data.readBoolean();
+                String[] dependencies = new String[data.readInt()];
+                for (int d = 0; d < dependencies.length; d++) {
+                    dependencies[d] = nameAt(names, data.readInt());
+                }
+                (containment ? imported.containments() : imported.leadings())
+                        .put(targetType, new ImportedVerdict(value, dependencies));
+            }
+            types.put(type, imported);
+        }
+        return new MetadataSnapshot(fingerprints, types);
+    }
+
+    private static String nameAt(String[] names, int index) throws IOException {
+        if (index < 0 || index >= names.length)
+            throw new IOException("Corrupted metadata snapshot: no name at " + index);
+        return names[index];
+    }
+
+    private static long fingerprintOf(String name, @Nullable ClassLoader loader) {
+        try {
+            return fingerprint(Class.forName(name, false, loader));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * @return a fingerprint of the class file of the type, or {@link #UNKNOWN} if it has none that can be found.
+     */
+    static long fingerprint(Class<?> type) {
+        if (type.isArray()) {
+            long component = fingerprint(type.getComponentType());
+            return component == UNKNOWN ? UNKNOWN : mix(component, type.getName().hashCode());
+        }
+        if (type.isPrimitive())
+            return mix(FNV_OFFSET, type.getName().hashCode());
+        if (type.isHidden())
+            return UNKNOWN;
+
+        long hash = mix(mix(FNV_OFFSET, type.getName().hashCode()), type.getModifiers());
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null || loader == ClassLoader.getPlatformClassLoader())
+            return mix(hash, Runtime.version().toString().hashCode());
+
+        URL resource = loader.getResource(type.getName().replace('.', '/') + ".class");
+        if (resource == null)
+            return UNKNOWN;
+        try {
+            switch (resource.getProtocol()) {
+                case "file" -> {
+                    Path file = Path.of(resource.toURI());
+                    hash = mix(hash, Files.size(file));
+                    hash = mix(hash, Files.getLastModifiedTime(file).toMillis());
+                }
+                case "jar" -> {
+                    JarEntry entry = ((JarURLConnection) resource.openConnection()).getJarEntry();
+                    hash = mix(hash, entry.getSize());
+                    hash = mix(hash, entry.getTime());
+                    hash = mix(hash, entry.getCrc());
+                }
+                default -> {
+                    return UNKNOWN;
+                }
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return UNKNOWN;
+        }
+        return hash == UNKNOWN ? 1 : hash;
+    }
+
+    /**
+     * FNV-1a over the 8 bytes of the value.
+     */
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Add the names of the classes a verdict on a type depends on: the type itself and all its supertypes,
+     * whose class files determine its fields and what it is assignable to.
+     */
+    static void addDependencies(Class<?> type, Set<String> names) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive() || !names.add(type.getName()))
+            return;
+        Class<?> superclass = type.getSuperclass();
+        if (superclass != null)
+            addDependencies(superclass, names);
+        for (Class<?> superinterface : type.getInterfaces()) {
+            addDependencies(superinterface, names);
+        }
+    }
+}
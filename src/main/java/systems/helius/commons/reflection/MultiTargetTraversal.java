@@ -0,0 +1,156 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.collections.IdentityHashSet;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Iterative depth-first traversal of an object graph seeking several types at once.
+ * <p>
+ * Which of the target types a class matches, may contain or may lead to is computed once per class encountered
+ * and kept as a bit mask where bit i stands for the i-th target type.
+ * Visiting an object thus costs a single mask lookup instead of a typing check per target type.
+ * </p>
+ */
+final class MultiTargetTraversal {
+    /**
+     * Number of bits of the masks.
+     */
+    static final int MAX_TARGETS = Long.SIZE;
+
+    private final BeanIntrospector introspector;
+    private final IntrospectionContext<Object> context;
+    private final IntrospectionSettings settings;
+    private final Class<?>[] targets;
+    private final List<Set<Object>> found;
+    private final long allTargets;
+
+    private final Map<Class<?>, Long> referenceMatches = new HashMap<>();
+    private final Map<Class<?>, Long> primitiveMatches = new HashMap<>();
+    private final Map<Class<?>, Long> containments = new HashMap<>();
+    private final Map<Class<?>, Long> leadings = new HashMap<>();
+    /**
+     * The leadings of the container fields, which depend on the element types declared by each field.
+     */
+    private final Map<Field, Long> containerLeadings = new HashMap<>();
+
+    MultiTargetTraversal(BeanIntrospector introspector, IntrospectionContext<Object> context, IntrospectionSettings settings) {
+        this.introspector = introspector;
+        this.context = context;
+        this.settings = settings;
+        this.targets = context.targetTypes().toArray(new Class<?>[0]);
+        if (targets.length > MAX_TARGETS)
+            throw new IllegalArgumentException("At most " + MAX_TARGETS + " types may be sought at once, got: " + targets.length);
+        this.found = new ArrayList<>(targets.length);
+        for (int i = 0; i < targets.length; i++) {
+            found.add(new IdentityHashSet<>());
+        }
+        this.allTargets = targets.length == MAX_TARGETS ? -1L : (1L << targets.length) - 1;
+    }
+
+    /**
+     * Visit the whole graph.
+     * @return the instances found of each target type, in the iteration order of the target types of the context.
+     * @throws TracedAccessException if an access failure occurs and the settings require to fail-fast.
+     */
+    Map<Class<?>, Set<?>> run(@Nullable Object root) throws TracedAccessException {
+        var stack = new WorkStack();
+        var sink = new StackingSink(stack, this::mayLeadToTargets);
+        if (root != null)
+            stack.push(root, null, 0);
+
+        while (!stack.isEmpty()) {
+            Object current = stack.peekValue();
+            Field holdingField = stack.peekField();
+            boolean element = stack.peekElement();
+            int depth = stack.peekDepth();
+            stack.pop();
+
+            if (depth >= settings.getMaxDepth() || !context.visited().add(current))
+                continue;
+
+            long matches = matches(current, holdingField);
+            for (long remaining = matches; remaining != 0; remaining &= remaining - 1) {
+                found.get(Long.numberOfTrailingZeros(remaining)).add(current);
+            }
+            if ((matches == 0 || settings.isEnterTargetType()) && mayEnter(current.getClass())) {
+                pushContent(stack, sink, current, holdingField, element, depth);
+            }
+        }
+
+        Map<Class<?>, Set<?>> result = new LinkedHashMap<>();
+        for (int i = 0; i < targets.length; i++) {
+            result.put(targets[i], found.get(i));
+        }
+        return result;
+    }
+
+    private void pushContent(WorkStack stack, StackingSink sink, Object current, @Nullable Field holdingField, boolean element, int depth)
+            throws TracedAccessException {
+        final int from = sink.open(depth + 1);
+        introspector.extractContent(current, holdingField, element, context, settings, sink);
+        stack.reverseFrom(from);
+    }
+
+    private long matches(Object value, @Nullable Field holdingField) {
+        Class<?> originalType = holdingField != null ? holdingField.getType() : null;
+        if (originalType == Void.class)
+            return allTargets;
+
+        Map<Class<?>, Long> masks = originalType != null && originalType.isPrimitive() ? primitiveMatches : referenceMatches;
+        Long mask = masks.get(value.getClass());
+        if (mask == null) {
+            mask = computeMask(i -> ClassInspector.evaluateTypingMatch(targets[i], value, originalType));
+            masks.put(value.getClass(), mask);
+        }
+        return mask;
+    }
+
+    private boolean mayEnter(Class<?> type) {
+        if (ClassInspector.isPrimitiveWrapper(type)
+                || settings.isLeafType(type)
+                || settings.getBoundaryPolicy().isBoundary(type))
+            return false;
+
+        Long mask = containments.get(type);
+        if (mask == null) {
+            mask = computeMask(i -> introspector.classInspector.mayContain(type, targets[i]));
+            containments.put(type, mask);
+        }
+        return mask != 0;
+    }
+
+    private boolean mayLeadToTargets(Field holdingField) {
+        if (ClassInspector.getElementTypes(holdingField) != null) {
+            Long mask = containerLeadings.get(holdingField);
+            if (mask == null) {
+                mask = computeMask(i -> introspector.mayLeadTo(holdingField, targets[i], settings));
+                containerLeadings.put(holdingField, mask);
+            }
+            return mask != 0;
+        }
+        Class<?> declaredType = holdingField.getType();
+        Long mask = leadings.get(declaredType);
+        if (mask == null) {
+            mask = computeMask(i -> introspector.classInspector.mayLeadTo(declaredType, targets[i]));
+            leadings.put(declaredType, mask);
+        }
+        return mask != 0;
+    }
+
+    /**
+     * @param isSet tells whether the bit of the i-th target type is set
+     * @return the mask over all target types
+     */
+    private long computeMask(IntPredicate isSet) {
+        long mask = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (isSet.test(i))
+                mask |= 1L << i;
+        }
+        return mask;
+    }
+}
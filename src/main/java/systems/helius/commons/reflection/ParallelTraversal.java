@@ -0,0 +1,85 @@
+package systems.helius.commons.reflection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Traversal of an object graph split across the workers of a {@link ForkJoinPool}.
+ * <p>
+ * Each task visits its part of the graph depth-first from its own {@link WorkStack}.
+ * When its stack grows large while the pool lacks work, a task hands the bottom half of its stack to a new task.
+ * Large arrays, collections and maps are thus split as soon as their elements are pushed.
+ * The context must hold thread-safe visited and found sets.
+ * </p>
+ * @param <T> the target type
+ */
+final class ParallelTraversal<T> {
+    /**
+     * Minimal number of pending entries before a task considers splitting its work.
+     */
+    private static final int SPLIT_THRESHOLD = 64;
+    /**
+     * Tasks stop splitting while their worker already has that many surplus tasks queued.
+     */
+    private static final int MAX_SURPLUS = 3;
+
+    private final BeanIntrospector introspector;
+    private final IntrospectionContext<T> context;
+    private final IntrospectionSettings settings;
+    private final AtomicReference<TracedAccessException> failure = new AtomicReference<>();
+
+    ParallelTraversal(BeanIntrospector introspector, IntrospectionContext<T> context, IntrospectionSettings settings) {
+        this.introspector = introspector;
+        this.context = context;
+        this.settings = settings;
+    }
+
+    /**
+     * Visit the whole graph and add every instance of the target type to the found set of the context.
+     * @throws TracedAccessException the first access failure that occurred if the settings require to fail-fast.
+     */
+    void run(Object root, ForkJoinPool pool) throws TracedAccessException {
+        var stack = new WorkStack();
+        stack.push(root, null, 0);
+        pool.invoke(new VisitTask(stack));
+        TracedAccessException e = failure.get();
+        if (e != null)
+            throw e;
+    }
+
+    private final class VisitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final WorkStack stack;
+
+        private VisitTask(WorkStack stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        protected void compute() {
+            List<VisitTask> forked = new ArrayList<>();
+            var traversal = new DepthFirstTraversal<>(introspector, null, context, settings, stack);
+            try {
+                while (!stack.isEmpty() && failure.get() == null) {
+                    if (stack.size() > SPLIT_THRESHOLD && getSurplusQueuedTaskCount() < MAX_SURPLUS) {
+                        var task = new VisitTask(stack.splitBottom(stack.size() / 2));
+                        task.fork();
+                        forked.add(task);
+                    }
+                    T match = traversal.step();
+                    if (match != null)
+                        context.found().add(match);
+                }
+            } catch (TracedAccessException e) {
+                failure.compareAndSet(null, e);
+            }
+            for (VisitTask task : forked) {
+                task.join();
+            }
+        }
+    }
+}
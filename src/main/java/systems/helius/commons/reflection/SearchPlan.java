@@ -0,0 +1,327 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.collections.IdentityHashSet;
+import systems.helius.commons.exceptions.IntrospectionException;
+import systems.helius.commons.reflection.accessors.ContentAccessor;
+import systems.helius.commons.reflection.accessors.ContentSink;
+import systems.helius.commons.reflection.accessors.FieldHandlesAccessor;
+
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A search for a target type within roots of a given class, compiled once and run many times.
+ * Obtained through {@link BeanIntrospector#compile(Class, Class, Lookup)}.
+ * <p>
+ * The plan follows the static type graph from the root class: wherever the declared type of a field tells the exact
+ * runtime type of its value (final classes and primitives), the match against the target type, the decision to enter
+ * the value and the handles of its fields are resolved at compilation.
+ * Values whose runtime type is only known when they are reached, such as those of interfaces, non-final classes, arrays,
+ * collections and maps, are visited by the generic traversal of the introspector, as are roots of a subclass of the root class
+ * and the values of the classes that the accessors do not read from their fields.
+ * The fields that cannot lead to the target type are never read.
+ * </p>
+ * <p>
+ * A plan finds the same instances as {@link BeanIntrospector#seek(Class, Object, Lookup)} would with the settings
+ * of the introspector at the time of the compilation.
+ * </p>
+ * @param <T> the target type
+ */
+public final class SearchPlan<T> {
+    private final BeanIntrospector introspector;
+    private final Class<T> targetType;
+    private final Class<?> rootClass;
+    private final Lookup lookup;
+    private final IntrospectionSettings settings;
+    private final Node root;
+
+    SearchPlan(BeanIntrospector introspector, Class<T> targetType, Class<?> rootClass, Lookup lookup, IntrospectionSettings settings)
+            throws IllegalAccessException {
+        this.introspector = introspector;
+        this.targetType = targetType;
+        this.rootClass = rootClass;
+        this.lookup = lookup;
+        this.settings = settings;
+        this.root = new Compiler().compile(rootClass);
+    }
+
+    public Class<T> getTargetType() {
+        return targetType;
+    }
+
+    public Class<?> getRootClass() {
+        return rootClass;
+    }
+
+    /**
+     * Seek within the root and all children for instances of the target type.
+     * Warning! The returned set uses object identity (==), not equals() as is usually the case with sets.
+     * @param root seek into
+     * @return every instance found of the target type
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    public Set<T> seek(Object root) throws IntrospectionException {
+        Set<T> found = new IdentityHashSet<>();
+        walk(root, found::add);
+        return found;
+    }
+
+    /**
+     * Count the instances of the target type within the root and all children.
+     * @param root seek into
+     * @return the number of distinct instances, according to object identity (==), of the target type.
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    public long count(Object root) throws IntrospectionException {
+        long[] count = {0};
+        walk(root, match -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Seek within the root and all children for instances of the target type and pass each of them to an action.
+     * Each instance is passed once, according to object identity (==), not equals().
+     * @param root seek into
+     * @param action receives each instance as soon as it is found.
+     * @throws IntrospectionException if any fatal access issues are encountered during the introspection.
+     */
+    public void walk(Object root, Consumer<? super T> action) throws IntrospectionException {
+        TraversalBuffers traversalBuffers = introspector.acquireBuffers();
+        try {
+            var context = new IntrospectionContext<>(targetType, lookup, Collections.emptySet(),
+                    traversalBuffers.visited, introspector.accessors);
+            run(root, context, traversalBuffers.stack, action);
+        } catch (TracedAccessException e) {
+            e.setRoot(root);
+            throw new IntrospectionException(e);
+        } finally {
+            introspector.releaseBuffers(traversalBuffers);
+        }
+    }
+
+    /**
+     * Iterative depth-first traversal visiting the objects in the same order as {@link DepthFirstTraversal}.
+     * Each entry of the stack is tagged with its node of the plan, or untagged if it must be visited generically.
+     */
+    private void run(@Nullable Object rootValue, IntrospectionContext<T> context, WorkStack stack, Consumer<? super T> action)
+            throws TracedAccessException {
+        if (rootValue == null)
+            return;
+        stack.push(rootValue, null, 0, rootValue.getClass() == rootClass ? root : null);
+        var genericSink = new StackingSink(stack, field -> introspector.mayLeadToTarget(field, context, settings));
+        var extractedSink = new ExtractedSink(stack);
+
+        while (!stack.isEmpty()) {
+            Object current = stack.peekValue();
+            Field holdingField = stack.peekField();
+            boolean element = stack.peekElement();
+            int depth = stack.peekDepth();
+            Node node = (Node) stack.peekTag();
+            stack.pop();
+
+            if (depth >= settings.getMaxDepth() || !context.visited().add(current))
+                continue;
+
+            boolean match;
+            if (node != null) {
+                match = node.matches;
+                if (node.descend)
+                    pushFields(stack, extractedSink, node, current, depth + 1);
+            } else {
+                match = ClassInspector.evaluateTypingMatch(targetType, current,
+                        (holdingField != null ? holdingField.getType() : null));
+                if ((!match || settings.isEnterTargetType()) && introspector.mayEnter(current.getClass(), context, settings)) {
+                    final int from = genericSink.open(depth + 1);
+                    introspector.extractContent(current, holdingField, element, context, settings, genericSink);
+                    stack.reverseFrom(from);
+                }
+            }
+            if (match) {
+                //noinspection unchecked covered by the typing match
+                action.accept((T) current);
+            }
+        }
+    }
+
+    private static void pushFields(WorkStack stack, ExtractedSink extractedSink, Node node, Object current, int childDepth) {
+        final int from = stack.size();
+        int start = 0;
+        for (int s = 0; s < node.segmentEnds.length; s++) {
+            int end = node.segmentEnds[s];
+            if (node.extractors != null && node.extractors[s] != null) {
+                if (start < end) {
+                    extractedSink.open(node, start, end, childDepth);
+                    node.extractors[s].extract(current, node.extractedFields[s], extractedSink);
+                }
+            } else {
+                for (int i = start; i < end; i++) {
+                    Object value = node.handles[i].get(current);
+                    if (value != null)
+                        stack.push(value, node.fields[i], childDepth, node.children[i]);
+                }
+            }
+            start = end;
+        }
+        stack.reverseFrom(from);
+    }
+
+    /**
+     * Pushes the values read by a generated extractor, keeping those of the fields selected by the node.
+     */
+    private static final class ExtractedSink implements ContentSink {
+        private final WorkStack stack;
+        private Node node;
+        private int start;
+        private int end;
+        private int childDepth;
+
+        ExtractedSink(WorkStack stack) {
+            this.stack = stack;
+        }
+
+        void open(Node node, int start, int end, int childDepth) {
+            this.node = node;
+            this.start = start;
+            this.end = end;
+            this.childDepth = childDepth;
+        }
+
+        @Override
+        public void accept(Object value, @Nullable Field holdingField) {
+            for (int i = start; i < end; i++) {
+                if (node.fields[i] == holdingField) {
+                    stack.push(value, holdingField, childDepth, node.children[i]);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * What is known at compilation of the values of an exact type.
+     */
+    private static final class Node {
+        boolean matches;
+        /**
+         * Whether the fields of the value are read once it has been matched.
+         */
+        boolean descend;
+        /**
+         * The fields that may lead to the target type and their handles, in the order of the segments of the field plan.
+         * Null handles for the fields read by a generated extractor.
+         */
+        Field[] fields;
+        VarHandle[] handles;
+        /**
+         * The node of the value of each field. Null where the value must be visited generically.
+         */
+        Node[] children;
+        /**
+         * The index following the last field of each segment.
+         */
+        int[] segmentEnds;
+        /**
+         * The extractor of each segment read by the {@link GeneratedMetadata} of its declaring class, null for the other segments.
+         * Null if no segment has any.
+         */
+        @Nullable
+        FieldExtractor[] extractors;
+        /**
+         * The fields of each segment read by an extractor, in the order it reads them.
+         */
+        Field[][] extractedFields;
+    }
+
+    private final class Compiler {
+        private final Map<Class<?>, Node> nodes = new HashMap<>();
+
+        /**
+         * @return the node of type or null if its values must be visited generically.
+         */
+        @Nullable
+        Node compile(Class<?> type) throws IllegalAccessException {
+            if (nodes.containsKey(type))
+                return nodes.get(type);
+            if (!type.isPrimitive() && !isReadByFields(type)) {
+                // Such as a root class that is an array or a collection
+                nodes.put(type, null);
+                return null;
+            }
+
+            var node = new Node();
+            nodes.put(type, node); // Before the children for the node to be reused by cycles
+            if (type.isPrimitive()) {
+                // Primitive values only match their own type
+                node.matches = targetType == type;
+                node.descend = false;
+                return node;
+            }
+            node.matches = targetType.isAssignableFrom(type);
+            var context = new IntrospectionContext<>(targetType, lookup, Set.of(), Set.of(), introspector.accessors);
+            node.descend = (!node.matches || settings.isEnterTargetType())
+                    && introspector.mayEnter(type, context, settings);
+            if (!node.descend)
+                return node;
+
+            FieldPlan plan = introspector.classInspector.getFieldPlan(type, lookup);
+            if (plan.getFailure() != null || plan.getSegments().stream().anyMatch(segment -> segment.failure() != null)) {
+                // The accessors deal with the failures according to the settings
+                nodes.put(type, null);
+                return null;
+            }
+
+            List<Field> fields = new ArrayList<>();
+            List<VarHandle> handles = new ArrayList<>();
+            List<FieldPlan.Segment> segments = plan.getSegments();
+            node.segmentEnds = new int[segments.size()];
+            node.extractors = plan.getGeneratedExtractors();
+            node.extractedFields = new Field[segments.size()][];
+            for (int s = 0; s < segments.size(); s++) {
+                FieldPlan.Segment segment = segments.get(s);
+                boolean extracted = node.extractors != null && node.extractors[s] != null;
+                if (extracted)
+                    node.extractedFields[s] = segment.fields();
+                for (int i = 0; i < segment.fields().length; i++) {
+                    Field field = segment.fields()[i];
+                    if (introspector.mayLeadToTarget(field, context, settings)) {
+                        fields.add(field);
+                        handles.add(extracted ? null : segment.handles()[i]);
+                    }
+                }
+                node.segmentEnds[s] = fields.size();
+            }
+            node.fields = fields.toArray(new Field[0]);
+            node.handles = handles.toArray(new VarHandle[0]);
+            node.children = new Node[node.fields.length];
+            for (int i = 0; i < node.fields.length; i++) {
+                Class<?> declaredType = node.fields[i].getType();
+                if (isExactType(declaredType))
+                    node.children[i] = compile(declaredType);
+            }
+            return node;
+        }
+
+        /**
+         * @return true if the values of a field of the declared type are always of that exact type,
+         * and the fields of that type are read by the {@link FieldHandlesAccessor}.
+         */
+        private boolean isExactType(Class<?> declaredType) {
+            return declaredType.isPrimitive()
+                    || (Modifier.isFinal(declaredType.getModifiers()) && isReadByFields(declaredType));
+        }
+
+        /**
+         * @return true if the content of the values of the type is read from their fields,
+         * by the {@link FieldHandlesAccessor}.
+         */
+        private boolean isReadByFields(Class<?> type) {
+            ContentAccessor accessor = introspector.accessors.getAccessorOf(type, settings);
+            return accessor != null && accessor.getClass() == FieldHandlesAccessor.class;
+        }
+    }
+}
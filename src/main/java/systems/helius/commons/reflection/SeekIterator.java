@@ -0,0 +1,56 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.exceptions.IntrospectionException;
+import systems.helius.commons.exceptions.UncheckedIntrospectionException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the instances of a target type found within an object graph.
+ * The graph is only visited as far as needed to find the next instance.
+ * @param <T> the target type
+ */
+final class SeekIterator<T> implements Iterator<T> {
+    private final DepthFirstTraversal<T> traversal;
+    private final Object root;
+    @Nullable
+    private T next;
+    private boolean exhausted;
+
+    SeekIterator(DepthFirstTraversal<T> traversal, Object root) {
+        this.traversal = traversal;
+        this.root = root;
+    }
+
+    /**
+     * @throws UncheckedIntrospectionException if a fatal access issue is encountered while looking for the next instance.
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null && !exhausted) {
+            try {
+                next = traversal.next();
+            } catch (TracedAccessException e) {
+                e.setRoot(root);
+                exhausted = true;
+                throw new UncheckedIntrospectionException(new IntrospectionException(e));
+            }
+            exhausted = next == null;
+        }
+        return next != null;
+    }
+
+    /**
+     * @throws UncheckedIntrospectionException if a fatal access issue is encountered while looking for the next instance.
+     */
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        T result = next;
+        next = null;
+        return result;
+    }
+}
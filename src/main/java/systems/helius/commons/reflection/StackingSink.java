@@ -0,0 +1,50 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.reflection.accessors.ContentSink;
+
+import java.lang.reflect.Field;
+import java.util.function.Predicate;
+
+/**
+ * Pushes the content extracted from an object onto a {@link WorkStack} as children of that object,
+ * leaving out the content whose holding field cannot lead to the target.
+ * A single sink serves a whole traversal: {@link #open(int)} is called before extracting the content of each object.
+ */
+final class StackingSink implements ContentSink {
+    private final WorkStack stack;
+    private final Predicate<Field> mayLeadToTarget;
+    private int childDepth;
+
+    /**
+     * @param stack           receives the children
+     * @param mayLeadToTarget tells whether the content of a field may be or lead to the target.
+     *                        Never called with a null field.
+     */
+    StackingSink(WorkStack stack, Predicate<Field> mayLeadToTarget) {
+        this.stack = stack;
+        this.mayLeadToTarget = mayLeadToTarget;
+    }
+
+    /**
+     * Prepare to receive the children of an object.
+     * @param childDepth the depth of the children in the object graph.
+     * @return the index of the stack at which the first child will be pushed.
+     */
+    int open(int childDepth) {
+        this.childDepth = childDepth;
+        return stack.size();
+    }
+
+    @Override
+    public void accept(Object value, @Nullable Field holdingField) {
+        if (holdingField == null || mayLeadToTarget.test(holdingField))
+            stack.push(value, holdingField, childDepth);
+    }
+
+    @Override
+    public void acceptElement(Object element, @Nullable Field containerField) {
+        if (containerField == null || mayLeadToTarget.test(containerField))
+            stack.pushElement(element, containerField, childDepth);
+    }
+}
@@ -0,0 +1,31 @@
+package systems.helius.commons.reflection;
+
+import systems.helius.commons.collections.IdentityHashSet;
+
+import java.util.Set;
+
+/**
+ * The working memory of an iterative traversal, kept between traversals to avoid reallocating and regrowing it.
+ * Buffers that grew too large during a traversal are not retained, to avoid pinning their memory indefinitely.
+ */
+final class TraversalBuffers {
+    /**
+     * Buffers that held more entries than this are discarded instead of being reused.
+     */
+    private static final int MAX_RETAINED_SIZE = 1 << 16;
+
+    final WorkStack stack = new WorkStack();
+    final Set<Object> visited = new IdentityHashSet<>();
+
+    /**
+     * Empty the buffers for their next use.
+     * @return false if the buffers grew too large to be retained.
+     */
+    boolean clear() {
+        if (visited.size() > MAX_RETAINED_SIZE || stack.capacity() > MAX_RETAINED_SIZE)
+            return false;
+        visited.clear();
+        stack.clear();
+        return true;
+    }
+}
@@ -0,0 +1,113 @@
+package systems.helius.commons.reflection;
+
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Analysis of the declared types of fields to determine whether an object graph may lead to instances of a target type.
+ * <p>
+ * The analysis is conservative: whenever the runtime type of a value cannot be known from its declared type
+ * (interfaces, abstract and non-final classes, collections and maps), the value is assumed to possibly lead to the target.
+ * Final classes, sealed hierarchies, arrays and primitives are explored through the declared types of their fields.
+ * </p>
+ */
+final class TypeReachability {
+    private final ClassInspector classInspector;
+    private final Class<?> targetType;
+
+    private final Set<Class<?>> explored = new HashSet<>();
+    private final Deque<Class<?>> pending = new ArrayDeque<>();
+
+    TypeReachability(ClassInspector classInspector, Class<?> targetType) {
+        this.classInspector = classInspector;
+        this.targetType = targetType;
+    }
+
+    /**
+     * @param type the exact runtime type of an object
+     * @return true if the content of an instance of type may be or lead to an instance of the target type.
+     */
+    boolean mayContain(Class<?> type) {
+        if (isUntypedContainer(type))
+            return true;
+        enqueueContent(type);
+        return explore();
+    }
+
+    /**
+     * @param declaredType the declared type of a field
+     * @return true if a value held by a field of the declared type may be or lead to an instance of the target type.
+     */
+    boolean mayLeadTo(Class<?> declaredType) {
+        enqueue(declaredType);
+        return explore();
+    }
+
+    /**
+     * @return the declared types examined by the analyses run so far. The content of each of them was examined too,
+     * unless it ended the analysis.
+     */
+    Set<Class<?>> getExplored() {
+        return Collections.unmodifiableSet(explored);
+    }
+
+    private boolean explore() {
+        while (!pending.isEmpty()) {
+            Class<?> declared = pending.poll();
+            if (mayMatch(declared))
+                return true;
+
+            if (declared.isSealed()) {
+                for (Class<?> permitted : declared.getPermittedSubclasses()) {
+                    enqueue(permitted);
+                }
+                if (!Modifier.isAbstract(declared.getModifiers()))
+                    enqueueContent(declared);
+            } else {
+                // Only final types and arrays remain
+                enqueueContent(declared);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Immediate verdict on a declared type.
+     * @return true if a value of the declared type may be an instance of the target type
+     * or if its runtime type is too loosely known to continue the analysis.
+     */
+    private boolean mayMatch(Class<?> declared) {
+        if (declared.isPrimitive())
+            return declared == targetType;
+        if (targetType.isAssignableFrom(declared))
+            return true;
+        if (declared.isArray())
+            // Arrays are covariant: an array of a subtype may be assignable to an array target
+            return targetType.isArray();
+        if (isUntypedContainer(declared))
+            return true;
+        return !Modifier.isFinal(declared.getModifiers()) && !declared.isSealed();
+    }
+
+    private void enqueueContent(Class<?> type) {
+        if (type.isArray()) {
+            enqueue(type.getComponentType());
+            return;
+        }
+        ClassLayout layout = classInspector.getLayout(type);
+        for (int i = 0; i < layout.instanceFieldCount(); i++) {
+            // A primitive field only matches a primitive target, and leads nowhere else
+            if (targetType.isPrimitive() || layout.hasFlag(i, ClassLayout.REFERENCE))
+                enqueue(layout.getField(i).getType());
+        }
+    }
+
+    private void enqueue(Class<?> declared) {
+        if (explored.add(declared))
+            pending.add(declared);
+    }
+
+    private static boolean isUntypedContainer(Class<?> type) {
+        return Iterable.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+    }
+}
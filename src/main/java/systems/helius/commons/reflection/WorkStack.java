@@ -0,0 +1,224 @@
+package systems.helius.commons.reflection;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * Array-backed stack of the objects left to visit during an iterative traversal.
+ * Each entry is made of a value, the field that held it, whether it is an element of a container held by that field
+ * rather than its value, and its depth in the object graph.
+ * Entries are stored in parallel arrays to avoid allocating a frame object per entry.
+ * An entry may also carry a tag, such as the node of a {@link SearchPlan}; the tags array is only allocated once a tag is pushed.
+ * The recursive search also uses it as a buffer shared by all its frames, each frame owning the entries above its children's.
+ */
+final class WorkStack {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private Object[] values;
+    private Field[] fields;
+    private boolean[] elements;
+    private int[] depths;
+    @Nullable
+    private Object[] tags;
+    private int size;
+
+    WorkStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    WorkStack(int initialCapacity) {
+        values = new Object[initialCapacity];
+        fields = new Field[initialCapacity];
+        elements = new boolean[initialCapacity];
+        depths = new int[initialCapacity];
+    }
+
+    void push(Object value, @Nullable Field holdingField, int depth) {
+        push(value, holdingField, false, depth);
+    }
+
+    /**
+     * Push an element of a container.
+     * @param containerField the field through which the container was reached
+     */
+    void pushElement(Object element, @Nullable Field containerField, int depth) {
+        push(element, containerField, true, depth);
+    }
+
+    private void push(Object value, @Nullable Field holdingField, boolean element, int depth) {
+        if (size == values.length)
+            grow();
+        values[size] = value;
+        fields[size] = holdingField;
+        elements[size] = element;
+        depths[size] = depth;
+        if (tags != null)
+            tags[size] = null;
+        size++;
+    }
+
+    void push(Object value, @Nullable Field holdingField, int depth, @Nullable Object tag) {
+        if (tags == null) {
+            if (tag == null) {
+                push(value, holdingField, depth);
+                return;
+            }
+            tags = new Object[values.length];
+        }
+        push(value, holdingField, depth);
+        tags[size - 1] = tag;
+    }
+
+    /**
+     * Remove the top entry. Its components must be read beforehand through the peek methods.
+     */
+    void pop() {
+        size--;
+        values[size] = null;
+        fields[size] = null;
+        if (tags != null)
+            tags[size] = null;
+    }
+
+    Object peekValue() {
+        return values[size - 1];
+    }
+
+    @Nullable
+    Field peekField() {
+        return fields[size - 1];
+    }
+
+    boolean peekElement() {
+        return elements[size - 1];
+    }
+
+    int peekDepth() {
+        return depths[size - 1];
+    }
+
+    @Nullable
+    Object peekTag() {
+        return tags == null ? null : tags[size - 1];
+    }
+
+    Object valueAt(int index) {
+        return values[index];
+    }
+
+    @Nullable
+    Field fieldAt(int index) {
+        return fields[index];
+    }
+
+    boolean elementAt(int index) {
+        return elements[index];
+    }
+
+    /**
+     * Remove the entries from an index up to the top of the stack.
+     * @param size the size of the stack once truncated
+     */
+    void truncate(int size) {
+        Arrays.fill(values, size, this.size, null);
+        Arrays.fill(fields, size, this.size, null);
+        if (tags != null)
+            Arrays.fill(tags, size, this.size, null);
+        this.size = size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Reverse the order of the entries from an index up to the top of the stack.
+     * Used to pop children in the order they were pushed.
+     * @param from the index of the first entry to reverse
+     */
+    void reverseFrom(int from) {
+        for (int i = from, j = size - 1; i < j; i++, j--) {
+            Object value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+            Field field = fields[i];
+            fields[i] = fields[j];
+            fields[j] = field;
+            boolean element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+            int depth = depths[i];
+            depths[i] = depths[j];
+            depths[j] = depth;
+            if (tags != null) {
+                Object tag = tags[i];
+                tags[i] = tags[j];
+                tags[j] = tag;
+            }
+        }
+    }
+
+    /**
+     * Move the entries at the bottom of the stack into a new stack.
+     * The bottom entries are the shallowest ones, which usually lead to the largest parts of the object graph.
+     * @param count the number of entries to move
+     * @return a new stack holding the moved entries in the same order.
+     */
+    WorkStack splitBottom(int count) {
+        var split = new WorkStack(Math.max(count, DEFAULT_CAPACITY));
+        System.arraycopy(values, 0, split.values, 0, count);
+        System.arraycopy(fields, 0, split.fields, 0, count);
+        System.arraycopy(elements, 0, split.elements, 0, count);
+        System.arraycopy(depths, 0, split.depths, 0, count);
+        if (tags != null) {
+            split.tags = new Object[split.values.length];
+            System.arraycopy(tags, 0, split.tags, 0, count);
+        }
+        split.size = count;
+
+        int remaining = size - count;
+        System.arraycopy(values, count, values, 0, remaining);
+        System.arraycopy(fields, count, fields, 0, remaining);
+        System.arraycopy(elements, count, elements, 0, remaining);
+        System.arraycopy(depths, count, depths, 0, remaining);
+        Arrays.fill(values, remaining, size, null);
+        Arrays.fill(fields, remaining, size, null);
+        if (tags != null) {
+            System.arraycopy(tags, count, tags, 0, remaining);
+            Arrays.fill(tags, remaining, size, null);
+        }
+        size = remaining;
+        return split;
+    }
+
+    /**
+     * Empty the stack while keeping its capacity for reuse.
+     */
+    void clear() {
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(fields, 0, size, null);
+        if (tags != null)
+            Arrays.fill(tags, 0, size, null);
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = values.length * 2;
+        values = Arrays.copyOf(values, capacity);
+        fields = Arrays.copyOf(fields, capacity);
+        elements = Arrays.copyOf(elements, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        if (tags != null)
+            tags = Arrays.copyOf(tags, capacity);
+    }
+}
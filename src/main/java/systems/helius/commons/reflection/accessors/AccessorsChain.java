@@ -7,24 +7,139 @@ import systems.helius.commons.reflection.IntrospectionSettings;
 import systems.helius.commons.reflection.LookupManager;
 
 import java.lang.reflect.Field;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Stream;
+import java.util.*;
 
+/**
+ * Delegates the access to the content of objects to the first accessor that accepts them, falling back to the next ones
+ * when an accessor fails in a way that allows it.
+ * <p>
+ * Accessors are tried from the highest {@link BaseContentAccessor#getPriority() priority} to the lowest.
+ * Accessors may be added to the default chain by registering them as services of {@link ContentAccessor}.
+ * Other accessors have a priority of {@link #DEFAULT_PRIORITY}.
+ * The accessors that may accept the instances of a class are resolved once per class and combination of
+ * {@link IntrospectionSettings#getDispatchFlags() dispatch flags}, so that dispatching an object takes a single lookup.
+ * Only the accessors that are not {@link BaseContentAccessor}s, or that override their per object decision, are still asked for each object.
+ * </p>
+ */
 public class AccessorsChain implements ContentAccessor {
-    private List<ContentAccessor> chain;
+    public static final int DEFAULT_PRIORITY = 0;
 
-    public AccessorsChain(ClassInspector classInspector, LookupManager lookupManager) {
-        this.chain = List.of(
+    /**
+     * The accessors discovered as services, once discovered.
+     * Set racily: the discovery may run more than once, but any of its results may be kept.
+     */
+    @Nullable
+    private static volatile List<ContentAccessor> discovered;
+
+    private final ContentAccessor[] chain;
+    /**
+     * The candidates of each class, per combination of dispatch flags.
+     * The entries are filled racily: resolving the candidates is idempotent, and their fields are final.
+     */
+    private final ClassValue<Candidates[]> dispatchTable = new ClassValue<>() {
+        @Override
+        protected Candidates[] computeValue(Class<?> type) {
+            return new Candidates[IntrospectionSettings.DISPATCH_FLAG_COMBINATIONS];
+        }
+    };
+
+    /**
+     * @param accessors in the order they are tried
+     * @param perObject whether the accessor at the same index must still be asked if it accepts each object
+     */
+    private record Candidates(ContentAccessor[] accessors, boolean[] perObject) {
+    }
+
+    /**
+     * Create the default chain: the {@link IterativeAccessor}, the {@link FieldHandlesAccessor}
+     * and the accessors {@link #discoverAccessors() discovered} as services.
+     */
+    public AccessorsChain(ClassInspector classInspector) {
+        this(withDiscovered(
                 new IterativeAccessor(),
-                new FieldHandlesAccessor(classInspector, lookupManager)
-        );
+                new FieldHandlesAccessor(classInspector)
+        ));
+    }
+
+    /**
+     * @param accessors the accessors of the chain, in any order.
+     *                  Those of equal priority are tried in the given order.
+     */
+    public AccessorsChain(Collection<? extends ContentAccessor> accessors) {
+        var sorted = new ArrayList<ContentAccessor>(accessors);
+        sorted.sort(Comparator.comparingInt(AccessorsChain::priorityOf).reversed());
+        this.chain = sorted.toArray(new ContentAccessor[0]);
+    }
+
+    /**
+     * Load the accessors registered as services of {@link ContentAccessor} through the {@link ServiceLoader},
+     * including the specialized accessors of the JDK containers shipped with this library.
+     * The accessors must have a public no-arg constructor and be thread-safe, as a single instance serves all the searches
+     * of every default chain.
+     * The services are loaded from the class loader of this library, whatever the thread calling,
+     * and only by the first call; the next calls return the same accessors.
+     *
+     * @throws ServiceConfigurationError if an accessor is registered but cannot be instantiated.
+     */
+    public static List<ContentAccessor> discoverAccessors() {
+        List<ContentAccessor> result = discovered;
+        if (result == null) {
+            var loaded = new ArrayList<ContentAccessor>();
+            for (ContentAccessor accessor : ServiceLoader.load(ContentAccessor.class, AccessorsChain.class.getClassLoader())) {
+                loaded.add(accessor);
+            }
+            result = List.copyOf(loaded);
+            discovered = result;
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static List<ContentAccessor> withDiscovered(ContentAccessor... builtIns) {
+        var accessors = new ArrayList<>(List.of(builtIns));
+        accessors.addAll(discoverAccessors());
+        return accessors;
+    }
+
+    private static int priorityOf(ContentAccessor accessor) {
+        return accessor instanceof BaseContentAccessor base ? base.getPriority() : DEFAULT_PRIORITY;
+    }
+
+    /**
+     * @return the accessors of the chain, in the order they are tried.
+     */
+    public List<ContentAccessor> getAccessors() {
+        return List.of(chain);
+    }
+
+    /**
+     * @deprecated privileged lookups are now acquired by the {@link ClassInspector}.
+     * Use {@link #AccessorsChain(ClassInspector)} instead.
+     */
+    @Deprecated(since = "0.7.0")
+    public AccessorsChain(ClassInspector classInspector, LookupManager lookupManager) {
+        this(classInspector);
+    }
+
+    /**
+     * @param type     the exact class of the values
+     * @param settings the settings of the search
+     * @return the accessor to which the chain gives all the values of the class with these settings,
+     * or null if it depends on each value or if no accessor accepts them.
+     */
+    @Nullable
+    public ContentAccessor getAccessorOf(Class<?> type, IntrospectionSettings settings) {
+        Candidates candidates = candidatesOf(type, settings);
+        return candidates.accessors().length > 0 && !candidates.perObject()[0] ? candidates.accessors()[0] : null;
     }
 
     @Override
     public boolean accepts(Object current, @Nullable Field holdingField, IntrospectionSettings settings) {
-        return chain.stream().anyMatch(chainElement -> chainElement.accepts(current, holdingField, settings));
+        Candidates candidates = candidatesOf(current.getClass(), settings);
+        for (int i = 0; i < candidates.accessors().length; i++) {
+            if (!candidates.perObject()[i] || candidates.accessors()[i].accepts(current, holdingField, settings))
+                return true;
+        }
+        return false;
     }
 
     /**
@@ -41,13 +156,48 @@ public class AccessorsChain implements ContentAccessor {
      */
     @Override
     public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) throws ChainComponentException {
+        List<Content> extracted = new ArrayList<>();
+        extractInto(current, holdingField, context, settings, (value, field) -> extracted.add(new Content(value, field)));
+        return extracted;
+    }
+
+    /**
+     * Attempt to push the content of the current object into a sink
+     *
+     * @param current      the current value to access the innards of.
+     * @param holdingField the field that contained the current value.
+     *                     Null when current is the root of the search.
+     * @param context      the current introspection context
+     * @param settings     settings of the current search
+     * @param sink         receives the content of the object
+     * @throws ChainComponentException if a component of the chain throws an exception, it is thrown immediately if the exception does not allow for fallbacks.
+     *                                 Otherwise, it is thrown only if none of the components managed to extract content and at least one threw an exception.
+     */
+    @Override
+    public void extractInto(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) throws ChainComponentException {
+        dispatch(current, holdingField, false, context, settings, sink);
+    }
+
+    @Override
+    public void extractElementInto(Object element, @Nullable Field containerField, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) throws ChainComponentException {
+        dispatch(element, containerField, true, context, settings, sink);
+    }
+
+    /**
+     * @param element whether current is an element of a container reached through the holding field.
+     */
+    private void dispatch(Object current, @Nullable Field holdingField, boolean element, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) throws ChainComponentException {
         ChainComponentException delayedException = null;
-        Collection<Content> extracted = null;
-        for (ContentAccessor chainElement : chain) {
-            if (chainElement.accepts(current, holdingField, settings)) {
+        Candidates candidates = candidatesOf(current.getClass(), settings);
+        for (int i = 0; i < candidates.accessors().length; i++) {
+            ContentAccessor chainElement = candidates.accessors()[i];
+            if (!candidates.perObject()[i] || chainElement.accepts(current, holdingField, settings)) {
                 try {
-                    extracted = chainElement.extract(current, holdingField, context, settings);
-                    break;
+                    if (element)
+                        chainElement.extractElementInto(current, holdingField, context, settings, sink);
+                    else
+                        chainElement.extractInto(current, holdingField, context, settings, sink);
+                    return;
                 } catch (ChainComponentException e) {
                     if (!e.isAllowFallback()) {
                         throw e;
@@ -56,15 +206,39 @@ public class AccessorsChain implements ContentAccessor {
                 }
             }
         }
-        if (extracted == null) { // If nothing is found
-            if (delayedException != null) {
-                // TODO consider merging exceptions if multiple chain elements threw exceptions
-                // If we had a delayed exception, rethrow it
-                throw delayedException;
+        // Nothing was extracted
+        if (delayedException != null) {
+            // TODO consider merging exceptions if multiple chain elements threw exceptions
+            // If we had a delayed exception, rethrow it
+            throw delayedException;
+        }
+    }
+
+    private Candidates candidatesOf(Class<?> type, IntrospectionSettings settings) {
+        int flags = settings.getDispatchFlags();
+        Candidates[] byFlags = dispatchTable.get(type);
+        Candidates candidates = byFlags[flags];
+        if (candidates == null) {
+            candidates = resolve(type, settings);
+            byFlags[flags] = candidates;
+        }
+        return candidates;
+    }
+
+    private Candidates resolve(Class<?> type, IntrospectionSettings settings) {
+        var accessors = new ArrayList<ContentAccessor>(chain.length);
+        var perObject = new boolean[chain.length];
+        for (ContentAccessor accessor : chain) {
+            if (accessor instanceof BaseContentAccessor base) {
+                if (base.acceptsType(type, settings)) {
+                    perObject[accessors.size()] = base.acceptsPerObject;
+                    accessors.add(accessor);
+                }
+            } else {
+                perObject[accessors.size()] = true;
+                accessors.add(accessor);
             }
-            // TODO check if any exception was thrown and if so, rethrow it
-            return Collections.emptyList();
         }
-        return extracted;
+        return new Candidates(accessors.toArray(new ContentAccessor[0]), Arrays.copyOf(perObject, accessors.size()));
     }
 }
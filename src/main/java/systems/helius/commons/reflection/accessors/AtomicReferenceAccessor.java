@@ -0,0 +1,43 @@
+package systems.helius.commons.reflection.accessors;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.reflection.IntrospectionContext;
+import systems.helius.commons.reflection.IntrospectionSettings;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Accessor of {@link AtomicReference}s, whose value is read through their public API.
+ * The fields of the JDK classes are otherwise only readable if their package is opened to this library.
+ */
+public class AtomicReferenceAccessor extends BaseContentAccessor {
+    /**
+     * Above the {@link FieldHandlesAccessor}, which would otherwise accept the references.
+     */
+    public static final int PRIORITY = 200;
+
+    public AtomicReferenceAccessor() {
+        super(PRIORITY);
+    }
+
+    @Override
+    public boolean acceptsType(Class<?> type, IntrospectionSettings settings) {
+        return type == AtomicReference.class;
+    }
+
+    @Override
+    public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        Object value = ((AtomicReference<?>) current).get();
+        return value == null ? List.of() : List.of(new Content(value, holdingField));
+    }
+
+    @Override
+    public void extractInto(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) {
+        Object value = ((AtomicReference<?>) current).get();
+        if (value != null)
+            sink.acceptElement(value, holdingField);
+    }
+}
@@ -1,14 +1,59 @@
 package systems.helius.commons.reflection.accessors;
 
+import jakarta.annotation.Nullable;
+import systems.helius.commons.reflection.IntrospectionSettings;
+
+import java.lang.reflect.Field;
+
+/**
+ * An accessor that accepts or refuses whole classes.
+ * <p>
+ * Since its decision only depends on the class of the value and on the {@link IntrospectionSettings#getDispatchFlags() dispatch flags}
+ * of the settings, an {@link AccessorsChain} asks it once per class and combination of flags instead of once per object.
+ * Subclasses that override {@link #accepts(Object, Field, IntrospectionSettings)} are still asked for each object
+ * of the classes they accept.
+ * Within a chain, accessors are tried from the highest priority to the lowest.
+ * </p>
+ */
 public abstract class BaseContentAccessor implements ContentAccessor {
 
     protected final int priority;
+    /**
+     * Whether the subclass overrides {@link #accepts(Object, Field, IntrospectionSettings)}.
+     */
+    final boolean acceptsPerObject;
 
     protected BaseContentAccessor(int priority) {
         this.priority = priority;
+        this.acceptsPerObject = overridesAccepts(getClass());
+    }
+
+    private static boolean overridesAccepts(Class<?> type) {
+        try {
+            return type.getMethod("accepts", Object.class, Field.class, IntrospectionSettings.class).getDeclaringClass()
+                    != BaseContentAccessor.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Impossible: declared by ContentAccessor", e);
+        }
     }
 
     public int getPriority() {
         return priority;
     }
+
+    /**
+     * Checks if this accessor accepts the values of a class.
+     * Accepts every class by default, for the subclasses that decide per object.
+     *
+     * @param type     the exact class of the values
+     * @param settings the settings of the search. Only the settings covered by the dispatch flags may be consulted.
+     */
+    public boolean acceptsType(Class<?> type, IntrospectionSettings settings) {
+        return true;
+    }
+
+    @Override
+    public boolean accepts(Object current, @Nullable Field holdingField, IntrospectionSettings settings) {
+        return acceptsType(current.getClass(), settings);
+    }
 }
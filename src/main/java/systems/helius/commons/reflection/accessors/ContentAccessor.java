@@ -7,7 +7,6 @@ import systems.helius.commons.reflection.TracedAccessException;
 
 import java.lang.reflect.Field;
 import java.util.Collection;
-import java.util.stream.Stream;
 
 /**
  * Provides access to the content of an Object.
@@ -43,4 +42,60 @@ public interface ContentAccessor {
                                     @Nullable Field holdingField,
                                     IntrospectionContext<?> context,
                                     IntrospectionSettings settings) throws ChainComponentException;
+
+    /**
+     * Push the values present within the current object into a sink.
+     * Unlike {@link #extract(Object, Field, IntrospectionContext, IntrospectionSettings)},
+     * no collection is built to hold the content.
+     * <p>
+     * Only non-null values are pushed.
+     * An accessor that fails must do so before pushing anything,
+     * so that a fallback accessor does not push the same content a second time.
+     * The default implementation pushes the result of the extract method.
+     * </p>
+     *
+     * @param current      the current value to access the innards of.
+     * @param holdingField the field that contained the current value.
+     *                     Null when current is the root of the search.
+     * @param context      the current introspection context
+     * @param settings     settings of the current search
+     * @param sink         receives the values within the current object.
+     * @throws ChainComponentException an extraction is authorized to fail.
+     *                         The accessor must indicate whether the introspector
+     *                         is allowed to try other accessors for the same value.
+     */
+    default void extractInto(Object current,
+                             @Nullable Field holdingField,
+                             IntrospectionContext<?> context,
+                             IntrospectionSettings settings,
+                             ContentSink sink) throws ChainComponentException {
+        for (Content content : extract(current, holdingField, context, settings)) {
+            if (content != null && content.value() != null)
+                sink.accept(content.value(), content.holdingField());
+        }
+    }
+
+    /**
+     * Push the values present within an element of a container into a sink.
+     * The container field is the field through which the container was reached, as for the values pushed
+     * by {@link ContentSink#acceptElement(Object, Field)}: its generic type describes the container,
+     * not the element, even when the element is itself a container.
+     * The default implementation pushes the same content as {@link #extractInto(Object, Field, IntrospectionContext, IntrospectionSettings, ContentSink)}.
+     *
+     * @param element        the element to access the innards of.
+     * @param containerField the field through which the container of the element was reached.
+     * @param context        the current introspection context
+     * @param settings       settings of the current search
+     * @param sink           receives the values within the element.
+     * @throws ChainComponentException an extraction is authorized to fail.
+     *                         The accessor must indicate whether the introspector
+     *                         is allowed to try other accessors for the same value.
+     */
+    default void extractElementInto(Object element,
+                                    @Nullable Field containerField,
+                                    IntrospectionContext<?> context,
+                                    IntrospectionSettings settings,
+                                    ContentSink sink) throws ChainComponentException {
+        extractInto(element, containerField, context, settings, sink);
+    }
 }
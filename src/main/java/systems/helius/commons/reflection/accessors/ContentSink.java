@@ -0,0 +1,31 @@
+package systems.helius.commons.reflection.accessors;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.Field;
+
+/**
+ * Receives the content of an object as it is extracted by a {@link ContentAccessor},
+ * without a {@link Content} being built for each value.
+ */
+@FunctionalInterface
+public interface ContentSink {
+    /**
+     * @param value        a value contained by the object. Never null.
+     * @param holdingField the field that holds this value.
+     */
+    void accept(Object value, @Nullable Field holdingField);
+
+    /**
+     * Receive an element of a container, such as a collection, a map or an optional, rather than the value of a field.
+     * The generic type of the field only describes the container that it holds directly, not the containers nested in it,
+     * which is why the searches keep track of the elements.
+     * The default implementation receives it as any other value.
+     *
+     * @param element        an element of the container. Never null.
+     * @param containerField the field through which the container was reached.
+     */
+    default void acceptElement(Object element, @Nullable Field containerField) {
+        accept(element, containerField);
+    }
+}
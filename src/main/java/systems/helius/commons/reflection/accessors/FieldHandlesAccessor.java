@@ -1,78 +1,77 @@
 package systems.helius.commons.reflection.accessors;
 
 import jakarta.annotation.Nullable;
-import systems.helius.commons.exceptions.LoookupAcquisitionException;
 import systems.helius.commons.reflection.*;
 
-import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.*;
 
 /**
  * Accessor that uses Fields and VarHandles to access fields of classes directly.
+ * The handles are resolved through the {@link FieldPlan} of each class provided by the {@link ClassInspector}.
+ * The fields of the classes annotated with {@link systems.helius.commons.annotations.Introspectable}
+ * are read by their {@link GeneratedMetadata} instead.
  */
-public class FieldHandlesAccessor implements ContentAccessor {
+public class FieldHandlesAccessor extends BaseContentAccessor {
+    /**
+     * The lowest priority: since any class is accepted, this accessor is the last resort of a chain.
+     */
+    public static final int PRIORITY = Integer.MIN_VALUE;
+
     private final ClassInspector classInspector;
-    private final LookupManager lookupManager;
 
-    public FieldHandlesAccessor(ClassInspector classInspector, LookupManager lookupManager) {
+    public FieldHandlesAccessor(ClassInspector classInspector) {
+        super(PRIORITY);
         this.classInspector = classInspector;
-        this.lookupManager = lookupManager;
+    }
+
+    /**
+     * @deprecated privileged lookups are now acquired by the {@link ClassInspector} when building field plans.
+     * Use {@link #FieldHandlesAccessor(ClassInspector)} instead.
+     */
+    @Deprecated(since = "0.7.0")
+    public FieldHandlesAccessor(ClassInspector classInspector, LookupManager lookupManager) {
+        this(classInspector);
     }
 
     @Override
-    public boolean accepts(Object current, @Nullable Field holdingField, IntrospectionSettings settings) {
+    public boolean acceptsType(Class<?> type, IntrospectionSettings settings) {
         return true;
     }
 
     @Override
     public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) throws ChainComponentException {
-        Map<Class<?>, List<Field>> fields = classInspector.getAllFieldsHierarchical(current.getClass());
-        if (fields.isEmpty()) return Collections.emptyList();
-
-        var result = new ArrayList<Content>();
-
-        MethodHandles.Lookup classLookup = getClassLookup(current, context);
-        for (Map.Entry<Class<?>, List<Field>> entry : fields.entrySet()) {
-            if (classLookup.lookupClass() != entry.getKey()) {
-                // This grants access to the private fields within superclasses
-                try {
-                    classLookup = lookupManager.getPrivilegedLookup(entry.getKey(), context.rootLookup(), classLookup);
-                } catch (LoookupAcquisitionException e) {
-                    if (!settings.useSafeAccessCheck()) {
-                        throw new ChainComponentException(e, true);
-                    }
-                    continue;
-                }
-            }
-
-            for (Field field : entry.getValue()) {
-                try {
-                    if (Modifier.isStatic(field.getModifiers()))
-                        continue;
+        List<Content> extracted = new ArrayList<>();
+        extractInto(current, holdingField, context, settings, (value, field) -> extracted.add(new Content(value, field)));
+        return extracted;
+    }
 
-                    Object value = classLookup.unreflectVarHandle(field).get(current);
-                    if (value != null) {
-                        result.add(new Content(value, field));
-                    }
-                } catch (IllegalAccessException e) {
-                    var traced = new TracedAccessException("Couldn't read the value of the field: " + field
-                            + ". This should be impossible. " +
-                            "Please file an issue at https://github.com/SBeausoleil/helius-commons/issues" +
-                            " describing how this happened.", e);
-                    throw new ChainComponentException(traced, true);
-                }
+    @Override
+    public void extractInto(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) throws ChainComponentException {
+        FieldPlan plan = getPlan(current, context);
+        if (plan.getFailure() != null) {
+            throw new ChainComponentException(plan.getFailure(), true);
+        }
+        // Fail before pushing any content
+        if (!settings.useSafeAccessCheck()) {
+            for (FieldPlan.Segment segment : plan.getSegments()) {
+                if (segment.failure() != null)
+                    throw new ChainComponentException(segment.failure(), true);
             }
         }
-        return result;
+
+        plan.read(current, settings.getExtractorGenerationThreshold(), sink);
     }
 
-    private MethodHandles.Lookup getClassLookup(Object current, IntrospectionContext<?> context) throws ChainComponentException {
+    private FieldPlan getPlan(Object current, IntrospectionContext<?> context) throws ChainComponentException {
         try {
-            return lookupManager.getPrivilegedLookup(current.getClass(), context.rootLookup(),  MethodHandles.lookup());
-        } catch (LoookupAcquisitionException e) {
-            throw new ChainComponentException(e, true);
+            return classInspector.getFieldPlan(current.getClass(), context.rootLookup());
+        } catch (IllegalAccessException e) {
+            var traced = new TracedAccessException("Couldn't create a handle for a field of: " + current.getClass()
+                    + ". This should be impossible. " +
+                    "Please file an issue at https://github.com/SBeausoleil/helius-commons/issues" +
+                    " describing how this happened.", e);
+            throw new ChainComponentException(traced, true);
         }
     }
 }
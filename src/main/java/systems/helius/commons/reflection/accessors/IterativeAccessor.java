@@ -1,51 +1,105 @@
 package systems.helius.commons.reflection.accessors;
 
 import jakarta.annotation.Nullable;
-import systems.helius.commons.collections.BridgingIterator;
 import systems.helius.commons.reflection.IntrospectionContext;
 import systems.helius.commons.reflection.IntrospectionSettings;
 import systems.helius.commons.reflection.SyntheticPrimitiveFields;
 
-import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.*;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
-public class IterativeAccessor implements ContentAccessor {
+public class IterativeAccessor extends BaseContentAccessor {
+    public static final int PRIORITY = 100;
+
+    public IterativeAccessor() {
+        super(PRIORITY);
+    }
+
     @Override
-    public boolean accepts(Object current, @Nullable Field holdingField, IntrospectionSettings settings) {
-        return (current instanceof Iterable<?> && !settings.isDetailledIterableCheck())
-                || (current instanceof Map<?, ?> && !settings.isDetailledMapCheck())
-                || current.getClass().isArray();
+    public boolean acceptsType(Class<?> type, IntrospectionSettings settings) {
+        return (Iterable.class.isAssignableFrom(type) && !settings.isDetailledIterableCheck())
+                || (Map.class.isAssignableFrom(type) && !settings.isDetailledMapCheck())
+                || type.isArray();
     }
 
     @Override
     public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
-        Stream<?> source;
-        if (current.getClass().isArray()) {
-            if (current.getClass().getComponentType().isPrimitive()) {
-                final int LENGTH = Array.getLength(current);
-                ArrayList<Object> list = new ArrayList<>(LENGTH);
-                for (int i = 0; i < LENGTH; i++)
-                    list.add(Array.get(current, i));
-                source = list.stream();
-                holdingField = SyntheticPrimitiveFields.getSyntheticPrimitiveField(current.getClass().getComponentType());
-            } else {
-                source = Arrays.stream((Object[]) current);
+        List<Content> extracted = new ArrayList<>();
+        extractInto(current, holdingField, context, settings, (value, field) -> extracted.add(new Content(value, field)));
+        return extracted;
+    }
+
+    @Override
+    public void extractInto(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) {
+        if (current instanceof Object[] array) {
+            for (Object value : array) {
+                if (value != null)
+                    sink.acceptElement(value, holdingField);
             }
+        } else if (current.getClass().isArray()) {
+            // The elements of a primitive array can only match the primitive type itself
+            Class<?> componentType = current.getClass().getComponentType();
+            if (context.targetTypes().contains(componentType))
+                extractPrimitives(current, SyntheticPrimitiveFields.getSyntheticPrimitiveField(componentType), sink);
         } else if (current instanceof Iterable<?> it) {
-            source = StreamSupport.stream(it.spliterator(), false);
+            for (Object value : it) {
+                if (value != null)
+                    sink.acceptElement(value, holdingField);
+            }
         } else if (current instanceof Map<?, ?> map) {
-            int size = map.size() * 2;
-            int characteristics = (map.keySet().spliterator().characteristics() & map.values().spliterator().characteristics())
-                    | Spliterator.SIZED;
-            var split = Spliterators.spliterator(new BridgingIterator(map.keySet(), map.values()), size, characteristics);
-            source = StreamSupport.stream(split, false);
+            MapTraversal.traverse(map, holdingField, true, context, settings, sink);
         } else {
             throw new UnsupportedOperationException("Type " + current.getClass() + " is not supported by the iterable scenario.");
         }
-        final Field resultingField = holdingField;
-        return source.map(value -> new Content(value, resultingField)).toList();
+    }
+
+    @Override
+    public void extractElementInto(Object element, @Nullable Field containerField, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) {
+        if (element instanceof Map<?, ?> map)
+            MapTraversal.traverse(map, containerField, false, context, settings, sink);
+        else
+            extractInto(element, containerField, context, settings, sink);
+    }
+
+    /**
+     * Push each element of a primitive array, read with a loop typed after its component type.
+     * Each element is boxed in an instance of its own: the searches collect their matches in identity-based sets,
+     * where the cached wrappers of valueOf would make equal elements a single match.
+     */
+    @SuppressWarnings("removal") // The constructors of the wrappers are the only way to get distinct instances
+    private static void extractPrimitives(Object array, Field syntheticField, ContentSink sink) {
+        if (array instanceof int[] values) {
+            for (int value : values) {
+                sink.accept(new Integer(value), syntheticField);
+            }
+        } else if (array instanceof long[] values) {
+            for (long value : values) {
+                sink.accept(new Long(value), syntheticField);
+            }
+        } else if (array instanceof byte[] values) {
+            for (byte value : values) {
+                sink.accept(new Byte(value), syntheticField);
+            }
+        } else if (array instanceof short[] values) {
+            for (short value : values) {
+                sink.accept(new Short(value), syntheticField);
+            }
+        } else if (array instanceof char[] values) {
+            for (char value : values) {
+                sink.accept(new Character(value), syntheticField);
+            }
+        } else if (array instanceof double[] values) {
+            for (double value : values) {
+                sink.accept(new Double(value), syntheticField);
+            }
+        } else if (array instanceof float[] values) {
+            for (float value : values) {
+                sink.accept(new Float(value), syntheticField);
+            }
+        } else if (array instanceof boolean[] values) {
+            for (boolean value : values) {
+                sink.accept(new Boolean(value), syntheticField);
+            }
+        }
     }
 }
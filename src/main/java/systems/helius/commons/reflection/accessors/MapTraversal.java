@@ -0,0 +1,94 @@
+package systems.helius.commons.reflection.accessors;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.reflection.ClassInspector;
+import systems.helius.commons.reflection.IntrospectionContext;
+import systems.helius.commons.reflection.IntrospectionSettings;
+import systems.helius.commons.reflection.MapTraversalMode;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes the content of maps according to the {@link MapTraversalMode} of the settings.
+ */
+final class MapTraversal {
+    static final int KEYS = 1;
+    static final int VALUES = 1 << 1;
+
+    private MapTraversal() {}
+
+    /**
+     * Push the keys, the values or both of a map, the latter in a single pass over its entries.
+     * They are pushed as elements of the map, through the same holding field.
+     * @param holdingField the field through which the map was reached.
+     * @param heldDirectly whether the map is the value of the holding field, rather than an element of the container it holds.
+     *                     Only then do the generic arguments of the field describe the keys and values of the map.
+     */
+    static void traverse(Map<?, ?> map, @Nullable Field holdingField, boolean heldDirectly,
+                         IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) {
+        switch (partsOf(holdingField, heldDirectly, context, settings)) {
+            case KEYS -> {
+                for (Object key : map.keySet()) {
+                    if (key != null)
+                        sink.acceptElement(key, holdingField);
+                }
+            }
+            case VALUES -> {
+                for (Object value : map.values()) {
+                    if (value != null)
+                        sink.acceptElement(value, holdingField);
+                }
+            }
+            case KEYS | VALUES -> {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getKey() != null)
+                        sink.acceptElement(entry.getKey(), holdingField);
+                    if (entry.getValue() != null)
+                        sink.acceptElement(entry.getValue(), holdingField);
+                }
+            }
+            default -> {
+                // Neither the keys nor the values can lead to the sought types
+            }
+        }
+    }
+
+    /**
+     * @return the parts of the map to traverse, a combination of {@link #KEYS} and {@link #VALUES}.
+     */
+    static int partsOf(@Nullable Field holdingField, boolean heldDirectly, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        return switch (settings.getMapTraversalMode()) {
+            case KEYS_ONLY -> KEYS;
+            case VALUES_ONLY -> VALUES;
+            case BOTH -> KEYS | VALUES;
+            case AUTO -> heldDirectly ? autoPartsOf(holdingField, context, settings) : KEYS | VALUES;
+        };
+    }
+
+    private static int autoPartsOf(@Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        List<Class<?>> elementTypes = holdingField == null || !Map.class.isAssignableFrom(holdingField.getType())
+                ? null
+                : ClassInspector.getElementTypes(holdingField);
+        if (elementTypes == null)
+            return KEYS | VALUES;
+        return (mayHold(elementTypes.get(0), context, settings) ? KEYS : 0)
+                | (mayHold(elementTypes.get(1), context, settings) ? VALUES : 0);
+    }
+
+    /**
+     * @return false if the elements of the declared type are leaves that are none of the sought types.
+     */
+    private static boolean mayHold(Class<?> declared, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        if (!Modifier.isFinal(declared.getModifiers())
+                || !(ClassInspector.isPrimitiveWrapper(declared) || settings.isLeafType(declared)))
+            return true;
+        for (Class<?> targetType : context.targetTypes()) {
+            if (targetType.isAssignableFrom(declared))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package systems.helius.commons.reflection.accessors;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.reflection.IntrospectionContext;
+import systems.helius.commons.reflection.IntrospectionSettings;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Accessor of the lists that support fast random access, such as {@link ArrayList}, read with an indexed loop
+ * instead of an iterator.
+ * Only the lists of the JDK that are not meant to be written concurrently are accepted:
+ * a concurrent or synchronized list could shrink between reading its size and reading its last elements.
+ */
+public class RandomAccessListAccessor extends BaseContentAccessor {
+    /**
+     * Above the {@link IterativeAccessor}, which would otherwise accept the lists.
+     */
+    public static final int PRIORITY = 200;
+    /**
+     * {@link ArrayList} and the lists of {@link Arrays#asList(Object[])} and {@link List#of()}.
+     * Their subclasses may be synchronized, and are left to the {@link IterativeAccessor}.
+     */
+    private static final Set<Class<?>> ACCEPTED = Set.of(ArrayList.class, Arrays.asList().getClass(),
+            List.of().getClass(), List.of(0).getClass());
+
+    public RandomAccessListAccessor() {
+        super(PRIORITY);
+    }
+
+    @Override
+    public boolean acceptsType(Class<?> type, IntrospectionSettings settings) {
+        return ACCEPTED.contains(type) && !settings.isDetailledIterableCheck();
+    }
+
+    @Override
+    public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        List<Content> extracted = new ArrayList<>();
+        extractInto(current, holdingField, context, settings, (value, field) -> extracted.add(new Content(value, field)));
+        return extracted;
+    }
+
+    @Override
+    public void extractInto(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings, ContentSink sink) {
+        List<?> list = (List<?>) current;
+        for (int i = 0, size = list.size(); i < size; i++) {
+            Object value = list.get(i);
+            if (value != null)
+                sink.acceptElement(value, holdingField);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package systems.helius.commons.collections;
+
+import org.junit.jupiter.api.Test;
+import systems.helius.commons.types.Foo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentIdentitySetTest {
+
+    @Test
+    void GivenEqualButDifferentInstances_WhenAdd_ThenKeepBoth() {
+        var set = new ConcurrentIdentitySet<Foo>();
+        var first = new Foo(1, "Hello");
+        var second = new Foo(1, "Hello");
+
+        assertTrue(set.add(first));
+        assertTrue(set.add(second));
+        assertFalse(set.add(first));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(second));
+        assertFalse(set.contains(new Foo(1, "Hello")));
+    }
+
+    @Test
+    void GivenConcurrentAdds_WhenAddSameInstances_ThenAddEachOnce() {
+        var set = new ConcurrentIdentitySet<Object>();
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            elements.add(new Object());
+        }
+
+        long added = IntStream.range(0, 8).parallel()
+                .mapToLong(i -> elements.stream().filter(set::add).count())
+                .sum();
+        assertEquals(elements.size(), added);
+        assertEquals(elements.size(), set.size());
+    }
+
+    @Test
+    void GivenElements_WhenIteratorRemove_ThenRemove() {
+        var set = new ConcurrentIdentitySet<Object>(4);
+        for (int i = 0; i < 10; i++) {
+            set.add(new Object());
+        }
+
+        var it = set.iterator();
+        int iterated = 0;
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+            iterated++;
+        }
+        assertEquals(10, iterated);
+        assertTrue(set.isEmpty());
+    }
+}
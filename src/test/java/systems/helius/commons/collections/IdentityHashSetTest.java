@@ -0,0 +1,95 @@
+package systems.helius.commons.collections;
+
+import org.junit.jupiter.api.Test;
+import systems.helius.commons.types.Foo;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityHashSetTest {
+
+    @Test
+    void GivenEqualButDifferentInstances_WhenAdd_ThenKeepBoth() {
+        var set = new IdentityHashSet<Foo>();
+        var first = new Foo(1, "Hello");
+        var second = new Foo(1, "Hello");
+
+        assertTrue(set.add(first));
+        assertTrue(set.add(second));
+        assertFalse(set.add(first));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(second));
+        assertFalse(set.contains(new Foo(1, "Hello")));
+        assertFalse(set.contains(null));
+        assertThrows(NullPointerException.class, () -> set.add(null));
+    }
+
+    @Test
+    void GivenRandomAddsAndRemoves_WhenCompareWithIdentityHashMap_ThenSameContent() {
+        var set = new IdentityHashSet<Object>(2);
+        Set<Object> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Object> pool = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            pool.add(new Object());
+        }
+
+        var random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            Object element = pool.get(random.nextInt(pool.size()));
+            if (random.nextBoolean())
+                assertEquals(expected.add(element), set.add(element));
+            else
+                assertEquals(expected.remove(element), set.remove(element));
+        }
+        assertEquals(expected.size(), set.size());
+        for (Object element : pool) {
+            assertEquals(expected.contains(element), set.contains(element));
+        }
+    }
+
+    @Test
+    void GivenElements_WhenIteratorRemove_ThenIterateEachOnceAndRemove() {
+        var set = new IdentityHashSet<Object>();
+        for (int i = 0; i < 1_000; i++) {
+            set.add(new Object());
+        }
+
+        Set<Object> iterated = Collections.newSetFromMap(new IdentityHashMap<>());
+        var it = set.iterator();
+        while (it.hasNext()) {
+            assertTrue(iterated.add(it.next()));
+            it.remove();
+        }
+        assertEquals(1_000, iterated.size());
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void GivenFilledSet_WhenClear_ThenReusable() {
+        var set = new IdentityHashSet<Object>();
+        var element = new Object();
+        for (int i = 0; i < 100; i++) {
+            set.add(new Object());
+        }
+        set.add(element);
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(element));
+        assertTrue(set.add(element));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void GivenIteration_WhenModified_ThenFailFast() {
+        var set = new IdentityHashSet<Object>();
+        set.add(new Object());
+        set.add(new Object());
+
+        var it = set.iterator();
+        it.next();
+        set.add(new Object());
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+}
@@ -6,14 +6,31 @@ import com.sb.factorium.RandomUtil;
 import com.sb.factorium.RecordingFactory;
 import com.sb.factorium.RecordingFactoryMaker;
 import org.junit.jupiter.api.Test;
+import systems.helius.commons.collections.IdentityHashSet;
 import systems.helius.commons.exceptions.IntrospectionException;
+import systems.helius.commons.exceptions.UncheckedIntrospectionException;
+import systems.helius.commons.reflection.accessors.ChainComponentException;
+import systems.helius.commons.reflection.accessors.IterativeAccessor;
+import systems.helius.commons.reflection.accessors.SealedLetterAccessor;
 import systems.helius.commons.types.*;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EventObject;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -79,6 +96,35 @@ class BeanIntrospectorTest {
         assertEquals(arr.length, found.size());
     }
 
+    @Test
+    void WhenSeekPrimitiveArrayContent_GivenRepeatedSmallValues_ThenFindEachElement() throws IntrospectionException {
+        int[] arr = {1, 1, 1};
+        Set<Integer> found = new BeanIntrospector().seek(int.class, arr, MethodHandles.lookup());
+        assertEquals(arr.length, found.size());
+    }
+
+    @Test
+    void WhenSeekPrimitiveArrayContent_GivenRepeatedValuesOfEachType_ThenFindEachElement() throws IntrospectionException {
+        var introspector = new BeanIntrospector();
+        assertEquals(2, introspector.seek(boolean.class, new boolean[]{true, true}, MethodHandles.lookup()).size());
+        assertEquals(2, introspector.seek(byte.class, new byte[]{0, 0}, MethodHandles.lookup()).size());
+        assertEquals(2, introspector.seek(char.class, new char[]{'a', 'a'}, MethodHandles.lookup()).size());
+        assertEquals(2, introspector.seek(long.class, new long[]{0L, 0L}, MethodHandles.lookup()).size());
+        assertEquals(2, introspector.seek(double.class, new double[]{0.5, 0.5}, MethodHandles.lookup()).size());
+    }
+
+    @Test
+    void WhenExtractPrimitiveArray_GivenOtherTargetType_ThenSkipTheElements() throws ChainComponentException {
+        byte[] arr = new byte[1024];
+        var accessor = new IterativeAccessor();
+        var settings = new IntrospectionSettings();
+
+        var stringContext = new IntrospectionContext<>(String.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), accessor);
+        assertTrue(accessor.extract(arr, null, stringContext, settings).isEmpty());
+        var byteContext = new IntrospectionContext<>(byte.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), accessor);
+        assertEquals(arr.length, accessor.extract(arr, null, byteContext, settings).size());
+    }
+
     @Test
     void WhenSeekObjectArrayContent_GivenNestedObjectArray_ThenFindAll() throws IllegalAccessException, IntrospectionException {
         RecordingFactory<String, Foo> recordingFactory = (RecordingFactory<String, Foo>) FactoryProvider.make(
@@ -234,16 +280,477 @@ class BeanIntrospectorTest {
         assertTrue(found.containsAll(toFind));
     }
 
+    @Test
+    void WhenSeekMapContent_GivenValuesOnlyTraversal_ThenDoNotReadKeys() throws IntrospectionException {
+        var map = new HashMap<String, String>();
+        map.put("key", "value");
+        var settings = new IntrospectionSettings();
+        settings.setMapTraversalMode(MapTraversalMode.VALUES_ONLY);
+
+        Set<String> found = new BeanIntrospector(settings).seek(String.class, map, MethodHandles.lookup());
+        assertEquals(Set.of("value"), found);
+    }
+
+    @SuppressWarnings("unused")
+    private static class NestedMaps {
+        final Map<String, Object> byName = new HashMap<>();
+        final Map<Integer, Map<Foo, String>> byId = new HashMap<>();
+        final Map<String, List<Object>> listsByName = new HashMap<>();
+        Object slot;
+    }
+
+    @Test
+    void WhenSeekMapContent_GivenMapsNestedInMaps_ThenPruneEachWithItsOwnTypes() throws IntrospectionException {
+        var first = new Foo(1, "first");
+        var second = new Foo(2, "second");
+        var third = new Foo(3, "third");
+        var nested = new NestedMaps();
+        // The generic types of the fields do not describe the keys of the nested maps
+        nested.byName.put("first", new HashMap<>(Map.of(first, "value")));
+        nested.byId.put(2, new HashMap<>(Map.of(second, "value")));
+        nested.listsByName.put("third", new ArrayList<>(List.of(new HashMap<>(Map.of(third, "value")))));
+
+        Set<Foo> found = new BeanIntrospector().seek(Foo.class, nested, MethodHandles.lookup());
+        assertEquals(3, found.size());
+        assertTrue(found.containsAll(List.of(first, second, third)));
+        assertEquals(3, new IterativeIntrospector().seek(Foo.class, nested, MethodHandles.lookup()).size());
+    }
+
+    @Test
+    void WhenSeekMapContent_GivenMapInObjectField_ThenTraverseAllOfIt() throws IntrospectionException {
+        var foo = new Foo(1, "key");
+        var nested = new NestedMaps();
+        nested.slot = new HashMap<>(Map.of(foo, 1));
+
+        Set<Foo> found = new BeanIntrospector().seek(Foo.class, nested, MethodHandles.lookup());
+        assertEquals(1, found.size());
+        assertTrue(found.contains(foo));
+    }
+
     @Test
     void WhenSeekMapContent_GivenUseUnsafeAccessAndOutOfModuleCode_ThenFail() {
         var settings = new IntrospectionSettings();
         settings.setSafeAccessCheck(false);
         var introspector = new BeanIntrospector(settings);
-        var map = new HashMap<String, Boolean>();
-        map.put("hello", true);
-        map.put("world", false);
+        var map = new HashMap<String, EventObject>();
+        // The source of an EventObject may hold a String, but java.util is not opened to this module
+        map.put("hello", new EventObject("world"));
         assertThrows(IntrospectionException.class, () -> {
             introspector.seek(String.class, map, MethodHandles.lookup());
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void WhenSeek_GivenOptionals_ThenFindTheirValues() throws IntrospectionException {
+        var foo = new Foo(1, "Hello");
+        // java.util is not opened to this module, so the value can only be read through the API of Optional
+        var optionals = new ArrayList<>(List.of(Optional.of(foo), Optional.empty()));
+        Set<Foo> found = new BeanIntrospector().seek(Foo.class, optionals, MethodHandles.lookup());
+        assertEquals(Set.of(foo), found);
+    }
+
+    @Test
+    void WhenSeek_GivenAtomicReference_ThenFindItsValue() throws IntrospectionException {
+        var foo = new Foo(1, "Hello");
+        var reference = new AtomicReference<>(foo);
+        assertEquals(Set.of(foo), new BeanIntrospector().seek(Foo.class, reference, MethodHandles.lookup()));
+        var map = new HashMap<>(Map.of(1, reference));
+        assertEquals(Set.of("Hello"), new BeanIntrospector().seek(String.class, map, MethodHandles.lookup()));
+    }
+
+    @SuppressWarnings("unused")
+    private static class Tagged {
+        private final List<String> tags = new ArrayList<>();
+        private final List<Object> others = new ArrayList<>();
+    }
+
+    @Test
+    void WhenSeek_GivenContainerWhoseElementTypeCannotLeadToTarget_ThenSkipIt() throws IntrospectionException {
+        var tagged = new Tagged();
+        var skipped = new Foo(1, "Hidden");
+        var found = new Foo(2, "Visible");
+        // Only possible through an unchecked conversion: the generic declaration is trusted
+        //noinspection unchecked,rawtypes
+        ((List) tagged.tags).add(skipped);
+        tagged.others.add(found);
+
+        assertEquals(Set.of(found), new BeanIntrospector().seek(Foo.class, tagged, MethodHandles.lookup()));
+        // Strings are still found in the list of strings
+        tagged.tags.add("tag");
+        assertTrue(new BeanIntrospector().seek(String.class, tagged, MethodHandles.lookup()).contains("tag"));
+    }
+
+    @Test
+    void WhenSeek_GivenFieldsThatCannotLeadToTarget_ThenFindAll() throws IntrospectionException {
+        School school = new SchoolGenerator().generate();
+        new SchoolGenerator().addStudents(school, 10);
+        Set<ComplexHuman> found = new BeanIntrospector().seek(ComplexHuman.class, school, MethodHandles.lookup());
+        // The students who are children also lead to their parents
+        long parents = school.getStudents().values().stream().filter(profile -> profile.getStudent() instanceof ComplexChild).count() * 2;
+        assertEquals(school.getTeachers().size() + school.getStudents().size() + parents, found.size());
+        assertTrue(found.containsAll(school.getTeachers()));
+    }
+
+    @Test
+    void WhenSeek_GivenFieldsThatCannotLeadToTarget_ThenNeverVisitThem() throws TracedAccessException {
+        School school = new SchoolGenerator().generate();
+        new SchoolGenerator().addStudents(school, 10);
+        var introspector = new BeanIntrospector();
+        Set<Object> visited = new IdentityHashSet<>();
+        var context = new IntrospectionContext<>(ComplexHuman.class, MethodHandles.lookup(), new IdentityHashSet<>(), visited,
+                introspector.accessors);
+        introspector.depthFirstSearch(school, null, 0, context, new IntrospectionSettings());
+
+        assertTrue(visited.containsAll(school.getStudents().values()));
+        // Strings, sexes and boxed numbers cannot be nor hold a human: their fields are pruned before being visited
+        assertTrue(visited.stream().noneMatch(value -> value instanceof String || value instanceof Sex || value instanceof Number),
+                visited::toString);
+    }
+
+    @Test
+    void WhenSeekLeafType_GivenStrings_ThenFindWithoutEntering() throws IntrospectionException {
+        var foo = fooGenerator.generate();
+        Set<String> found = new BeanIntrospector().seek(String.class, foo, MethodHandles.lookup());
+        assertEquals(1, found.size());
+        assertTrue(new BeanIntrospector().seek(byte.class, foo, MethodHandles.lookup()).isEmpty());
+    }
+
+    @Test
+    void WhenSeek_GivenCustomLeafType_ThenMatchButDoNotEnter() throws IntrospectionException {
+        var structure = new ComplexStructure(new ComplexStructure.MiddleStrata.IntHolder(1), new ComplexStructure.MiddleStrata.IntHolder(2));
+        var settings = IntrospectionSettingsBuilder.anIntrospectionSettings()
+                .withLeafTypes(ComplexStructure.MiddleStrata.class)
+                .build();
+        var introspector = new BeanIntrospector(settings);
+
+        assertEquals(2, introspector.seek(ComplexStructure.MiddleStrata.class, structure, MethodHandles.lookup()).size());
+        assertTrue(introspector.seek(ComplexStructure.MiddleStrata.IntHolder.class, structure, MethodHandles.lookup()).isEmpty());
+    }
+
+    @Test
+    void WhenSeek_GivenLambda_ThenDoNotEnterCapturedValues() throws IntrospectionException {
+        Foo foo = fooGenerator.generate();
+        Supplier<Foo> supplier = () -> foo;
+        assertTrue(new BeanIntrospector().seek(Foo.class, supplier, MethodHandles.lookup()).isEmpty());
+    }
+
+    @Test
+    void WhenSeekThread_GivenThread_ThenMatchButDoNotEnter() throws IntrospectionException {
+        Thread thread = new Thread(() -> {}, "introspected");
+        assertEquals(1, new BeanIntrospector().seek(Thread.class, thread, MethodHandles.lookup()).size());
+        assertTrue(new BeanIntrospector().seek(String.class, thread, MethodHandles.lookup()).isEmpty());
+    }
+
+    @Test
+    void WhenSeek_GivenCustomBoundaryPolicy_ThenDoNotEnterSubclassesOfBoundaries() throws IntrospectionException {
+        var structure = new ComplexHuman("John", null, "Doe", 35, Sex.MALE, Sex.MALE);
+        var settings = IntrospectionSettingsBuilder.anIntrospectionSettings()
+                .withBoundaryPolicy(new BoundaryPolicy(Set.of(ComplexStructure.class), false))
+                .build();
+
+        assertEquals(1, new BeanIntrospector(settings).seek(ComplexHuman.class, structure, MethodHandles.lookup()).size());
+        assertTrue(new BeanIntrospector(settings).seek(String.class, structure, MethodHandles.lookup()).isEmpty());
+    }
+
+    @Test
+    void WhenParallelSeek_GivenSchool_ThenFindSameAsSeek() throws IntrospectionException {
+        var schoolGenerator = new SchoolGenerator();
+        School school = schoolGenerator.generate();
+        schoolGenerator.addStudents(school, 500);
+        schoolGenerator.addTeachers(school, 50);
+        var introspector = new BeanIntrospector();
+
+        Set<ComplexHuman> expected = introspector.seek(ComplexHuman.class, school, MethodHandles.lookup());
+        Set<ComplexHuman> found = introspector.parallelSeek(ComplexHuman.class, school, MethodHandles.lookup());
+        assertEquals(expected.size(), found.size());
+        assertTrue(expected.stream().allMatch(found::contains));
+    }
+
+    @Test
+    void WhenParallelSeek_GivenUseUnsafeAccessAndOutOfModuleCode_ThenFail() {
+        var settings = new IntrospectionSettings();
+        settings.setSafeAccessCheck(false);
+        var introspector = new BeanIntrospector(settings);
+        var list = List.of(new EventObject("hello"), new EventObject("world"));
+        assertThrows(IntrospectionException.class, () -> {
+            introspector.parallelSeek(String.class, list, MethodHandles.lookup());
+        });
+    }
+
+    @Test
+    void WhenStream_GivenSchool_ThenYieldSameAsSeek() throws IntrospectionException {
+        var schoolGenerator = new SchoolGenerator();
+        School school = schoolGenerator.generate();
+        schoolGenerator.addStudents(school, 20);
+        var introspector = new BeanIntrospector();
+
+        Set<ComplexHuman> expected = introspector.seek(ComplexHuman.class, school, MethodHandles.lookup());
+        List<ComplexHuman> streamed = introspector.stream(ComplexHuman.class, school, MethodHandles.lookup()).toList();
+        assertEquals(expected.size(), streamed.size());
+        assertTrue(streamed.stream().allMatch(expected::contains));
+    }
+
+    @Test
+    void WhenStreamLimit_GivenCycle_ThenStopEarly() {
+        var first = new ChainLink(null);
+        var second = new ChainLink(first);
+        var third = new ChainLink(second);
+        third.setNext(first);
+
+        assertEquals(2, new BeanIntrospector().stream(ChainLink.class, first, MethodHandles.lookup()).limit(2).count());
+        assertSame(first, new BeanIntrospector().stream(ChainLink.class, first, MethodHandles.lookup()).findFirst().orElseThrow());
+    }
+
+    @Test
+    void WhenStreamLimit_GivenLongChain_ThenLeaveTheRestUnvisited() {
+        var first = new ChainLink(null);
+        var last = first;
+        for (int i = 0; i < 10_000; i++) {
+            last = new ChainLink(last);
+        }
+        var entered = new AtomicInteger();
+        var introspector = new BeanIntrospector() {
+            @Override
+            protected boolean mayEnter(Class<?> type, IntrospectionContext<?> context, IntrospectionSettings settings) {
+                entered.incrementAndGet();
+                return super.mayEnter(type, context, settings);
+            }
+        };
+
+        assertEquals(3, introspector.stream(ChainLink.class, first, MethodHandles.lookup()).limit(3).count());
+        assertTrue(entered.get() <= 3, () -> entered.get() + " links entered");
+    }
+
+    @Test
+    void WhenStream_GivenUseUnsafeAccessAndOutOfModuleCode_ThenFailWhenConsumed() {
+        var settings = new IntrospectionSettings();
+        settings.setSafeAccessCheck(false);
+        var introspector = new BeanIntrospector(settings);
+        Stream<String> stream = introspector.stream(String.class, new EventObject("hello"), MethodHandles.lookup());
+        assertThrows(UncheckedIntrospectionException.class, stream::count);
+    }
+
+    @Test
+    void WhenSeekAll_GivenSchool_ThenFindSameAsSeekPerType() throws IntrospectionException {
+        var schoolGenerator = new SchoolGenerator();
+        School school = schoolGenerator.generate();
+        schoolGenerator.addStudents(school, 20);
+        schoolGenerator.addTeachers(school, 5);
+        var introspector = new BeanIntrospector();
+        Set<Class<?>> targetTypes = new LinkedHashSet<>(List.of(ComplexHuman.class, StudentProfile.class, String.class, Sex.class));
+
+        Map<Class<?>, Set<?>> found = introspector.seekAll(targetTypes, school, MethodHandles.lookup());
+        assertEquals(List.copyOf(targetTypes), List.copyOf(found.keySet()));
+        for (Class<?> targetType : targetTypes) {
+            Set<?> expected = introspector.seek(targetType, school, MethodHandles.lookup());
+            assertEquals(expected.size(), found.get(targetType).size(), targetType.getName());
+            assertTrue(expected.stream().allMatch(found.get(targetType)::contains), targetType.getName());
+        }
+    }
+
+    @Test
+    void WhenWalkAndCount_GivenSchool_ThenSameAsSeek() throws IntrospectionException {
+        var schoolGenerator = new SchoolGenerator();
+        School school = schoolGenerator.generate();
+        schoolGenerator.addStudents(school, 20);
+        schoolGenerator.addTeachers(school, 5);
+        var introspector = new BeanIntrospector();
+        Set<String> expected = introspector.seek(String.class, school, MethodHandles.lookup());
+
+        // Repeated to reuse the traversal buffers of the previous walk
+        for (int i = 0; i < 3; i++) {
+            Set<String> walked = Collections.newSetFromMap(new IdentityHashMap<>());
+            introspector.walk(String.class, school, MethodHandles.lookup(), walked::add);
+            assertEquals(expected.size(), walked.size());
+            assertTrue(expected.stream().allMatch(walked::contains));
+            assertEquals(expected.size(), introspector.count(String.class, school, MethodHandles.lookup()));
+        }
+    }
+
+    @Test
+    void WhenWalk_GivenNestedWalk_ThenBothComplete() throws IntrospectionException {
+        var first = new ChainLink(null);
+        var second = new ChainLink(first);
+        var introspector = new BeanIntrospector();
+        List<Long> nestedCounts = new ArrayList<>();
+
+        introspector.walk(ChainLink.class, second, MethodHandles.lookup(), link -> {
+            try {
+                nestedCounts.add(introspector.count(ChainLink.class, link, MethodHandles.lookup()));
+            } catch (IntrospectionException e) {
+                fail(e);
+            }
+        });
+        // Each link leads to the other
+        assertEquals(List.of(2L, 2L), nestedCounts);
+    }
+
+    @Test
+    void WhenSeek_GivenGeneratedExtractors_ThenSameAsVarHandles() throws IntrospectionException {
+        var schoolGenerator = new SchoolGenerator();
+        School school = schoolGenerator.generate();
+        schoolGenerator.addStudents(school, 20);
+        schoolGenerator.addTeachers(school, 5);
+        var settings = new IntrospectionSettings();
+        settings.setExtractorGenerationThreshold(1);
+        var generating = new BeanIntrospector(settings, new CachingClassInspector());
+        var introspector = new BeanIntrospector();
+
+        for (Class<?> targetType : List.of(String.class, ComplexHuman.class, int.class)) {
+            Set<?> expected = introspector.seek(targetType, school, MethodHandles.lookup());
+            // The first seek reads the fields through VarHandles and generates the extractors
+            generating.seek(targetType, school, MethodHandles.lookup());
+            assertEquals(expected.size(), generating.seek(targetType, school, MethodHandles.lookup()).size(), targetType.getName());
+        }
+    }
+
+    @Test
+    void WhenRunCompiledPlan_GivenSchool_ThenSameAsSeek() throws IntrospectionException {
+        var schoolGenerator = new SchoolGenerator();
+        School school = schoolGenerator.generate();
+        schoolGenerator.addStudents(school, 20);
+        schoolGenerator.addTeachers(school, 5);
+        var introspector = new BeanIntrospector();
+
+        for (Class<?> targetType : List.of(String.class, ComplexHuman.class, StudentProfile.class, int.class, Object.class)) {
+            SearchPlan<?> plan = introspector.compile(targetType, School.class, MethodHandles.lookup());
+            Set<?> expected = introspector.seek(targetType, school, MethodHandles.lookup());
+            Set<?> found = plan.seek(school);
+            assertEquals(expected.size(), found.size(), targetType.getName());
+            if (!targetType.isPrimitive())
+                assertTrue(expected.stream().allMatch(found::contains), targetType.getName());
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Address {
+        private final String city;
+        private final int zipCode;
+
+        private Address(String city, int zipCode) {
+            this.city = city;
+            this.zipCode = zipCode;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Customer {
+        private final String name;
+        private final Address address;
+        private Customer referrer;
+
+        private Customer(String name, Address address) {
+            this.name = name;
+            this.address = address;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Order {
+        private final Customer customer;
+        private final Address shipping;
+        private final int[] quantities;
+        private final List<String> notes;
+
+        private Order(Customer customer, Address shipping, int[] quantities, List<String> notes) {
+            this.customer = customer;
+            this.shipping = shipping;
+            this.quantities = quantities;
+            this.notes = notes;
+        }
+    }
+
+    @Test
+    void WhenRunCompiledPlan_GivenFinalFieldTypes_ThenSameAsSeek() throws IntrospectionException {
+        var home = new Address("Montreal", 1234);
+        var customer = new Customer("Alice", home);
+        var referrer = new Customer("Bob", new Address("Quebec", 5678));
+        customer.referrer = referrer;
+        referrer.referrer = customer;
+        var order = new Order(customer, home, new int[]{1, 1, 2}, List.of("fragile"));
+        var introspector = new BeanIntrospector();
+
+        for (Class<?> targetType : List.of(String.class, Address.class, Customer.class, int.class, Object.class)) {
+            SearchPlan<?> plan = introspector.compile(targetType, Order.class, MethodHandles.lookup());
+            Set<?> expected = introspector.seek(targetType, order, MethodHandles.lookup());
+            Set<?> found = plan.seek(order);
+            assertEquals(expected.size(), found.size(), targetType.getName());
+            if (!targetType.isPrimitive())
+                assertTrue(expected.stream().allMatch(found::contains), targetType.getName());
+        }
+    }
+
+    @Test
+    void WhenSeek_GivenIntrospectableBean_ThenFindTheContentReadByItsMetadata() throws IntrospectionException {
+        var foo = new Foo(1, "World");
+        var bean = new IntrospectableBean(7, "Hello", 3, foo);
+        var introspector = new BeanIntrospector();
+
+        Set<Foo> foos = introspector.seek(Foo.class, bean, MethodHandles.lookup());
+        assertEquals(1, foos.size());
+        assertTrue(foos.contains(foo));
+        Set<String> strings = introspector.seek(String.class, bean, MethodHandles.lookup());
+        assertTrue(strings.stream().anyMatch("Hello"::equals));
+        assertTrue(strings.stream().anyMatch("World"::equals));
+        // The superclass is not annotated and is read through its handles
+        assertTrue(introspector.seek(int.class, bean, MethodHandles.lookup()).stream().anyMatch(i -> i == 7));
+    }
+
+    @Test
+    void WhenRunCompiledPlan_GivenIntrospectableRootClass_ThenSameAsSeek() throws IntrospectionException {
+        var bean = new IntrospectableBean(7, "Hello", 3, new Foo(1, "World"));
+        var introspector = new BeanIntrospector();
+
+        for (Class<?> targetType : List.of(String.class, Foo.class, int.class, Object.class)) {
+            SearchPlan<?> plan = introspector.compile(targetType, IntrospectableBean.class, MethodHandles.lookup());
+            Set<?> expected = introspector.seek(targetType, bean, MethodHandles.lookup());
+            Set<?> found = plan.seek(bean);
+            assertEquals(expected.size(), found.size(), targetType.getName());
+            if (!targetType.isPrimitive())
+                assertTrue(expected.stream().allMatch(found::contains), targetType.getName());
+        }
+    }
+
+    private static final class Mailbox {
+        final SealedLetterAccessor.Letter letter;
+
+        Mailbox(SealedLetterAccessor.Letter letter) {
+            this.letter = letter;
+        }
+    }
+
+    @Test
+    void WhenRunCompiledPlan_GivenFinalClassReadByAnotherAccessor_ThenSameAsSeek() throws IntrospectionException {
+        var mailbox = new Mailbox(new SealedLetterAccessor.Letter("Alice", "Secret"));
+        var introspector = new BeanIntrospector();
+        Set<String> expected = introspector.seek(String.class, mailbox, MethodHandles.lookup());
+        // The accessor registered for the letters hides their text
+        assertEquals(1, expected.size());
+        Set<String> found = introspector.compile(String.class, Mailbox.class, MethodHandles.lookup()).seek(mailbox);
+        assertEquals(expected.size(), found.size());
+        assertTrue(found.containsAll(expected));
+    }
+
+    @Test
+    void WhenRunCompiledPlan_GivenArrayRootClass_ThenSameAsSeek() throws IntrospectionException {
+        var introspector = new BeanIntrospector();
+        int[] arr = {1, 1, 2};
+        SearchPlan<Integer> plan = introspector.compile(int.class, int[].class, MethodHandles.lookup());
+        assertEquals(introspector.seek(int.class, arr, MethodHandles.lookup()).size(), plan.seek(arr).size());
+    }
+
+    @Test
+    void WhenRunCompiledPlan_GivenCycleAndMaxDepth_ThenSameAsSeek() throws IntrospectionException {
+        var first = new ChainLink(null);
+        var second = new ChainLink(first);
+        var third = new ChainLink(second);
+        first.setNext(third);
+        var settings = new IntrospectionSettings();
+        settings.setMaxDepth(2);
+        var introspector = new BeanIntrospector(settings);
+
+        SearchPlan<ChainLink> plan = introspector.compile(ChainLink.class, ChainLink.class, MethodHandles.lookup());
+        assertEquals(introspector.seek(ChainLink.class, third, MethodHandles.lookup()), plan.seek(third));
+        assertEquals(2, plan.count(third));
+    }
+}
@@ -0,0 +1,69 @@
+package systems.helius.commons.reflection;
+
+import org.junit.jupiter.api.Test;
+import systems.helius.commons.exceptions.IntrospectionException;
+import systems.helius.commons.types.*;
+
+import java.lang.invoke.MethodHandles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedClassInspectorTest {
+
+    @Test
+    void WhenInspectedTwice_ThenCountAHit() {
+        var inspector = new BoundedClassInspector(10);
+        assertSame(inspector.getAllFieldsFlat(Foo.class), inspector.getAllFieldsFlat(Foo.class));
+
+        BoundedClassInspector.Stats stats = inspector.getStats();
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.hitCount());
+        assertEquals(0, stats.evictionCount());
+        assertEquals(1, stats.size());
+        assertTrue(stats.totalLoadTime() > 0);
+    }
+
+    @Test
+    void GivenFullInspector_WhenNewClassInspected_ThenEvict() {
+        var inspector = new BoundedClassInspector(2);
+        inspector.getAllFieldsFlat(Foo.class);
+        inspector.getAllFieldsFlat(DataClass.class);
+        inspector.getAllFieldsFlat(NumberWrapper.class);
+
+        BoundedClassInspector.Stats stats = inspector.getStats();
+        assertEquals(3, stats.missCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void GivenFrequentlyUsedClass_WhenOtherClassesKeepComing_ThenKeepMostlyTheFrequentOne() {
+        var inspector = new BoundedClassInspector(4);
+        for (int i = 0; i < 100; i++) {
+            inspector.getAllFieldsFlat(Foo.class);
+        }
+        Class<?> generated = int.class;
+        for (int i = 0; i < 100; i++) {
+            generated = generated.arrayType();
+            inspector.getAllFieldsFlat(generated);
+            inspector.getAllFieldsFlat(Foo.class);
+        }
+        // Every array type is a miss, Foo only rarely
+        assertTrue(inspector.getStats().missCount() < 120);
+        assertTrue(inspector.getStats().size() <= 4);
+    }
+
+    @Test
+    void GivenBeanIntrospector_ThenFindTheSameAsTheCachingInspector() throws IntrospectionException {
+        School school = new SchoolGenerator().generate();
+        var bounded = new BeanIntrospector(new BoundedClassInspector(3));
+        var caching = new BeanIntrospector(new CachingClassInspector());
+        assertEquals(caching.seek(String.class, school, MethodHandles.lookup()),
+                bounded.seek(String.class, school, MethodHandles.lookup()));
+    }
+
+    @Test
+    void GivenNonPositiveSize_ThenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedClassInspector(0));
+    }
+}
@@ -0,0 +1,57 @@
+package systems.helius.commons.reflection;
+
+import org.junit.jupiter.api.Test;
+import systems.helius.commons.exceptions.LoookupAcquisitionException;
+import systems.helius.commons.types.Foo;
+
+import java.lang.invoke.MethodHandles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingLookupManagerTest {
+
+    @Test
+    void GivenAccessibleClass_WhenAcquiredTwice_ThenReuseTheLookup() throws LoookupAcquisitionException {
+        var lookupManager = new CachingLookupManager();
+        MethodHandles.Lookup first = lookupManager.getPrivilegedLookup(Foo.class, MethodHandles.lookup());
+        assertSame(first, lookupManager.getPrivilegedLookup(Foo.class, MethodHandles.lookup()));
+        assertSame(first, lookupManager.findPrivilegedLookup(Foo.class, MethodHandles.lookup()));
+        assertEquals(1, lookupManager.getMissCount());
+        assertEquals(2, lookupManager.getHitCount());
+    }
+
+    @Test
+    void GivenClosedJdkClass_WhenAcquiredTwice_ThenRememberTheDenial() {
+        var lookupManager = new CachingLookupManager();
+        assertNull(lookupManager.findPrivilegedLookup(String.class, MethodHandles.lookup()));
+        assertNull(lookupManager.findPrivilegedLookup(String.class, MethodHandles.lookup()));
+        assertThrows(LoookupAcquisitionException.class,
+                () -> lookupManager.getPrivilegedLookup(String.class, MethodHandles.lookup()));
+        assertEquals(1, lookupManager.getMissCount());
+        assertEquals(2, lookupManager.getHitCount());
+    }
+
+    @Test
+    void GivenClosedJdkClass_WhenDeniedTwice_ThenThrowTheSameReasonWithoutRetrying() {
+        var lookupManager = new CachingLookupManager();
+        var first = assertThrows(LoookupAcquisitionException.class,
+                () -> lookupManager.getPrivilegedLookup(String.class, MethodHandles.lookup()));
+        var second = assertThrows(LoookupAcquisitionException.class,
+                () -> lookupManager.getPrivilegedLookup(String.class, MethodHandles.lookup()));
+        assertNull(second.getCause());
+        assertEquals(first.getMessage(), second.getMessage());
+        assertEquals(1, lookupManager.getMissCount());
+        assertEquals(1, lookupManager.getHitCount());
+    }
+
+    @Test
+    void GivenClosedJdkClass_WhenDeniedWithFallbacks_ThenReportEveryReason() {
+        var lookupManager = new CachingLookupManager();
+        lookupManager.findPrivilegedLookup(String.class, MethodHandles.lookup());
+        var denied = assertThrows(LoookupAcquisitionException.class,
+                () -> lookupManager.getPrivilegedLookup(String.class, MethodHandles.lookup(), MethodHandles.publicLookup()));
+        assertEquals(2, denied.getMessage().split(", ").length);
+        assertEquals(2, lookupManager.getMissCount());
+        assertEquals(1, lookupManager.getHitCount());
+    }
+}
@@ -1,21 +1,40 @@
 package systems.helius.commons.reflection;
 
 import org.junit.jupiter.api.Test;
-import systems.helius.commons.types.ChildClassA;
-import systems.helius.commons.types.Foo;
-import systems.helius.commons.types.Superclass;
+import systems.helius.commons.reflection.accessors.ContentSink;
+import systems.helius.commons.types.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ClassInspectorTest {
 
+    @SuppressWarnings({"rawtypes", "unused"})
+    private static class Containers {
+        List<String> names;
+        Map<Integer, List<Foo>> foosById;
+        Optional<Foo> foo;
+        List raw;
+        List<?> wildcard;
+        Foo notAContainer;
+    }
+
     @Test
     void getAllFieldsHandles() throws IllegalAccessException, NoSuchFieldException {
         Foo foo = new Foo(5, "Hello");
@@ -33,6 +52,18 @@ class ClassInspectorTest {
         assertTrue(foo.toString().contains(B_NEW_VALUE));
     }
 
+    @Test
+    void getFieldHandles_GivenCachingInspector_ThenReuseAndReadAll() throws IllegalAccessException, NoSuchFieldException {
+        var inspector = new CachingClassInspector();
+        FieldHandles handles = inspector.getFieldHandles(ChildClassA.class, MethodHandles.lookup());
+        assertSame(handles, inspector.getFieldHandles(ChildClassA.class, MethodHandles.lookup()));
+        assertEquals(inspector.getAllFieldsFlat(ChildClassA.class), handles.getFields());
+        assertEquals(0, handles.indexOf(ChildClassA.class.getDeclaredField("name")));
+
+        assertArrayEquals(new Object[]{"Hello", 7}, handles.readAll(new ChildClassA(7, "Hello")));
+        assertThrows(UnsupportedOperationException.class, () -> handles.asMap().clear());
+    }
+
     @Test
     void getAllFieldsFlat() {
         List<Field> fields = new ClassInspector().getAllFieldsFlat(ChildClassA.class);
@@ -41,4 +72,285 @@ class ClassInspectorTest {
         expectedFields.addAll(List.of(Superclass.class.getDeclaredFields()));
         assertEquals(expectedFields, fields);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getLayout() throws NoSuchFieldException {
+        ClassLayout layout = new CachingClassInspector().getLayout(ChildClassA.class);
+        assertEquals(2, layout.size());
+        assertEquals(2, layout.instanceFieldCount());
+        assertEquals(2, layout.groupCount());
+
+        assertEquals(ChildClassA.class, layout.getGroupClass(0));
+        assertEquals(0, layout.groupStart(0));
+        assertEquals(1, layout.groupEnd(0));
+        assertEquals(ChildClassA.class.getDeclaredField("name"), layout.getField(0));
+        assertEquals(ClassLayout.REFERENCE, layout.getFlags(0));
+        assertSame(layout.getGroupFields(0), layout.getGroupFields(0));
+
+        assertEquals(Superclass.class, layout.getGroupClass(1));
+        assertEquals(Superclass.class, layout.getDeclaringClass(1));
+        assertTrue(layout.hasFlag(1, ClassLayout.PRIMITIVE));
+        assertFalse(layout.hasFlag(1, ClassLayout.STATIC));
+    }
+
+    @SuppressWarnings("unused")
+    private class LayoutSample {
+        private final int[] numbers = {};
+        private Object[] objects;
+        private int[][] grid;
+    }
+
+    @Test
+    void getLayout_GivenFinalAndArrayFields_ThenFlagThem() throws NoSuchFieldException {
+        ClassLayout layout = new CachingClassInspector().getLayout(LayoutSample.class);
+        for (int i = 0; i < layout.size(); i++) {
+            Field field = layout.getField(i);
+            assertEquals(field.isSynthetic(), layout.hasFlag(i, ClassLayout.SYNTHETIC));
+            if (field.equals(LayoutSample.class.getDeclaredField("numbers"))) {
+                assertTrue(layout.hasFlag(i, ClassLayout.FINAL));
+                assertTrue(layout.hasFlag(i, ClassLayout.ARRAY_OF_PRIMITIVES));
+                assertFalse(layout.hasFlag(i, ClassLayout.ARRAY_OF_REFERENCES));
+            } else if (!field.isSynthetic()) {
+                assertFalse(layout.hasFlag(i, ClassLayout.FINAL));
+                assertTrue(layout.hasFlag(i, ClassLayout.ARRAY_OF_REFERENCES));
+                assertFalse(layout.hasFlag(i, ClassLayout.ARRAY_OF_PRIMITIVES));
+            }
+        }
+    }
+
+    @Test
+    void getFieldPlan() throws IllegalAccessException, NoSuchFieldException {
+        FieldPlan plan = new ClassInspector().getFieldPlan(ChildClassA.class, MethodHandles.lookup());
+        assertNull(plan.getFailure());
+        assertEquals(2, plan.getSegments().size());
+        assertEquals(2, plan.size());
+
+        FieldPlan.Segment childSegment = plan.getSegments().get(0);
+        assertEquals(ChildClassA.class, childSegment.declaringClass());
+        assertEquals(List.of(ChildClassA.class.getDeclaredField("name")), childSegment.getFields());
+        assertThrows(UnsupportedOperationException.class, () -> childSegment.getFields().clear());
+        FieldPlan.Segment superSegment = plan.getSegments().get(1);
+        assertEquals(Superclass.class, superSegment.declaringClass());
+        assertNull(superSegment.failure());
+
+        var child = new ChildClassA(7, "Hello");
+        assertEquals("Hello", childSegment.handles()[0].get(child));
+        assertEquals(7, (int) superSegment.handles()[0].get(child));
+    }
+
+    @Test
+    void getFieldPlan_GivenIntrospectableClass_ThenReadWithoutHandles() throws IllegalAccessException, NoSuchFieldException {
+        FieldPlan plan = new ClassInspector().getFieldPlan(IntrospectableBean.class, MethodHandles.lookup());
+        assertNull(plan.getFailure());
+        FieldExtractor[] generated = plan.getGeneratedExtractors();
+        assertNotNull(generated);
+        assertInstanceOf(GeneratedMetadata.class, generated[0]);
+        // The superclass is not annotated
+        assertNull(generated[1]);
+
+        FieldPlan.Segment segment = plan.getSegments().get(0);
+        assertEquals(0, segment.handles().length);
+        assertNull(segment.lookup());
+        assertEquals(IntrospectableBean.class.getDeclaredField("name"), segment.fields()[0]);
+
+        var foo = new Foo(1, "World");
+        List<Object> values = new ArrayList<>();
+        generated[0].extract(new IntrospectableBean(7, "Hello", 3, foo), segment.fields(), (value, field) -> values.add(value));
+        assertEquals(List.of("Hello", 3, foo), values);
+    }
+
+    @Test
+    void getFieldPlan_GivenIntrospectableClass_WhenAccessDenied_ThenDoNotUseTheMetadata() throws IllegalAccessException {
+        var denyingManager = new LookupManager() {
+            @Override
+            protected MethodHandles.Lookup privateLookupIn(Class<?> target, MethodHandles.Lookup caller) throws IllegalAccessException {
+                throw new IllegalAccessException("Denied " + target.getName());
+            }
+        };
+        FieldPlan plan = new ClassInspector(denyingManager).getFieldPlan(IntrospectableBean.class, MethodHandles.publicLookup());
+        assertNotNull(plan.getFailure());
+        assertNull(plan.getGeneratedExtractors());
+    }
+
+    @Test
+    void matchGeneratedMetadata_GivenChangedFieldType_ThenReject() {
+        Field[] declared = IntrospectableBean.class.getDeclaredFields();
+        assertNotNull(GeneratedMetadataRegistry.match(metadataOf(String.class, int.class, Foo.class), declared));
+        // As if the count had been a long when the metadata was generated
+        assertNull(GeneratedMetadataRegistry.match(metadataOf(String.class, long.class, Foo.class), declared));
+    }
+
+    private static GeneratedMetadata metadataOf(Class<?>... fieldTypes) {
+        return new GeneratedMetadata() {
+            @Override
+            public Class<?> type() {
+                return IntrospectableBean.class;
+            }
+
+            @Override
+            public List<String> fieldNames() {
+                return List.of("name", "count", "foo");
+            }
+
+            @Override
+            public List<Class<?>> fieldTypes() {
+                return List.of(fieldTypes);
+            }
+
+            @Override
+            public void extract(Object target, Field[] fields, ContentSink sink) {
+            }
+        };
+    }
+
+    @Test
+    void getFieldPlan_GivenCachingInspector_ThenReuseThePlan() throws IllegalAccessException {
+        var inspector = new CachingClassInspector();
+        FieldPlan first = inspector.getFieldPlan(Foo.class, MethodHandles.lookup());
+        assertSame(first, inspector.getFieldPlan(Foo.class, MethodHandles.lookup()));
+    }
+
+    @Test
+    void getAllFieldsHierarchical_GivenCachingInspector_WhenAccessedConcurrently_ThenComputeOnce() throws Exception {
+        var inspector = new CachingClassInspector();
+        final int nThreads = 8;
+        var start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<Map<Class<?>, List<Field>>>> results = new ArrayList<>();
+            for (int i = 0; i < nThreads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return inspector.getAllFieldsHierarchical(ComplexChild.class);
+                }));
+            }
+            start.countDown();
+            Map<Class<?>, List<Field>> first = results.get(0).get();
+            for (Future<Map<Class<?>, List<Field>>> result : results) {
+                assertSame(first, result.get());
+            }
+            assertThrows(UnsupportedOperationException.class, () -> first.put(Foo.class, List.of()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void getFieldPlan_WhenReadOftenEnough_ThenGenerateExtractors() throws IllegalAccessException {
+        FieldPlan plan = new CachingClassInspector().getFieldPlan(ChildClassA.class, MethodHandles.lookup());
+        assertNull(plan.getExtractors(1));
+        FieldExtractor[] extractors = plan.getExtractors(1);
+        assertNotNull(extractors);
+        assertSame(extractors, plan.getExtractors(1));
+
+        var child = new ChildClassA(7, "Hello");
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < extractors.length; i++) {
+            assertNotNull(extractors[i]);
+            extractors[i].extract(child, plan.getSegments().get(i).fields(), (value, field) -> values.add(value));
+        }
+        assertEquals(List.of("Hello", 7), values);
+    }
+
+    @Test
+    void mayContain() {
+        var inspector = new ClassInspector();
+        assertFalse(inspector.mayContain(String.class, ComplexHuman.class));
+        assertFalse(inspector.mayContain(Foo.class, ChainLink.class));
+        assertTrue(inspector.mayContain(Foo.class, String.class));
+        assertTrue(inspector.mayContain(School.class, ComplexHuman.class));
+        assertTrue(inspector.mayContain(int[].class, int.class));
+        assertFalse(inspector.mayContain(int[].class, Integer.class));
+    }
+
+    @Test
+    void exportMetadata_WhenImported_ThenGiveTheSameVerdicts() throws IOException {
+        var inspector = new CachingClassInspector();
+        boolean schoolMayContainHumans = inspector.mayContain(School.class, ComplexHuman.class);
+        boolean fooMayContainLinks = inspector.mayContain(Foo.class, ChainLink.class);
+        boolean sexMayLeadToHumans = inspector.mayLeadTo(Sex.class, ComplexHuman.class);
+        var snapshot = new ByteArrayOutputStream();
+        inspector.exportMetadata(snapshot);
+
+        var imported = new CachingClassInspector();
+        imported.importMetadata(new ByteArrayInputStream(snapshot.toByteArray()));
+        assertEquals(schoolMayContainHumans, imported.mayContain(School.class, ComplexHuman.class));
+        assertEquals(fooMayContainLinks, imported.mayContain(Foo.class, ChainLink.class));
+        assertEquals(sexMayLeadToHumans, imported.mayLeadTo(Sex.class, ComplexHuman.class));
+
+        var exportedAgain = new ByteArrayOutputStream();
+        imported.exportMetadata(exportedAgain);
+        // The imported verdicts are exported again, possibly in another order
+        assertEquals(snapshot.size(), exportedAgain.size());
+    }
+
+    @Test
+    void importMetadata_GivenFlippedVerdict_ThenTrustIt() throws IOException {
+        assertFalse(new CachingClassInspector().mayLeadTo(Sex.class, ComplexHuman.class));
+
+        var inspector = new CachingClassInspector();
+        inspector.importMetadata(leadingSnapshot(Sex.class, ComplexHuman.class, true, MetadataSnapshot.fingerprint(Sex.class)));
+        // Only the snapshot can tell so
+        assertTrue(inspector.mayLeadTo(Sex.class, ComplexHuman.class));
+    }
+
+    @Test
+    void importMetadata_GivenChangedClassFile_ThenDiscardTheVerdict() throws IOException {
+        var inspector = new CachingClassInspector();
+        inspector.importMetadata(leadingSnapshot(Sex.class, ComplexHuman.class, true, MetadataSnapshot.fingerprint(Sex.class) + 1));
+        assertFalse(inspector.mayLeadTo(Sex.class, ComplexHuman.class));
+    }
+
+    /**
+     * Write by hand a snapshot holding a single verdict of {@link ClassInspector#mayLeadTo(Class, Class)}
+     * that only depends on the declared type.
+     */
+    private static ByteArrayInputStream leadingSnapshot(Class<?> declaredType, Class<?> targetType, boolean verdict,
+                                                        long declaredTypeFingerprint) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        out.writeInt(0x484C4D53);
+        out.writeShort(1);
+        out.writeInt(2);
+        out.writeUTF(declaredType.getName());
+        out.writeLong(declaredTypeFingerprint);
+        out.writeUTF(targetType.getName());
+        out.writeLong(MetadataSnapshot.fingerprint(targetType));
+        out.writeInt(1);
+        out.writeInt(0); // The declared type
+        out.writeInt(1);
+        out.writeBoolean(false); // A leading verdict
+        out.writeInt(1); // The target type
+        out.writeBoolean(verdict);
+        out.writeInt(1);
+        out.writeInt(0); // Depends on the declared type
+        out.flush();
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    @Test
+    void importMetadata_GivenNotASnapshot_ThenThrow() {
+        var inspector = new CachingClassInspector();
+        assertThrows(IOException.class, () -> inspector.importMetadata(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6})));
+    }
+
+    @Test
+    void getElementTypes() throws NoSuchFieldException {
+        assertEquals(List.of(String.class), ClassInspector.getElementTypes(Containers.class.getDeclaredField("names")));
+        assertEquals(List.of(Integer.class, List.class), ClassInspector.getElementTypes(Containers.class.getDeclaredField("foosById")));
+        assertEquals(List.of(Foo.class), ClassInspector.getElementTypes(Containers.class.getDeclaredField("foo")));
+        assertNull(ClassInspector.getElementTypes(Containers.class.getDeclaredField("raw")));
+        assertNull(ClassInspector.getElementTypes(Containers.class.getDeclaredField("wildcard")));
+        assertNull(ClassInspector.getElementTypes(Containers.class.getDeclaredField("notAContainer")));
+    }
+
+    @Test
+    void mayLeadTo() {
+        var inspector = new ClassInspector();
+        assertTrue(inspector.mayLeadTo(Sex.class, Sex.class));
+        assertFalse(inspector.mayLeadTo(Sex.class, ComplexHuman.class));
+        assertFalse(inspector.mayLeadTo(int.class, Integer.class));
+        assertTrue(inspector.mayLeadTo(Object.class, ComplexHuman.class));
+        assertTrue(inspector.mayLeadTo(Superclass.class, ComplexHuman.class));
+    }
+}
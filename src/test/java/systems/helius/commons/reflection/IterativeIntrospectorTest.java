@@ -0,0 +1,53 @@
+package systems.helius.commons.reflection;
+
+import org.junit.jupiter.api.Test;
+import systems.helius.commons.exceptions.IntrospectionException;
+import systems.helius.commons.types.*;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IterativeIntrospectorTest {
+    private static SchoolGenerator schoolGenerator = new SchoolGenerator();
+
+    @Test
+    void WhenSeek_GivenVeryLongChain_ThenFindAllWithoutOverflowingTheStack() throws IntrospectionException {
+        final int LENGTH = 1_000_000;
+        var first = new ChainLink(null);
+        var current = first;
+        for (int i = 1; i < LENGTH; i++) {
+            current = new ChainLink(current);
+        }
+
+        Set<ChainLink> found = new IterativeIntrospector().seek(ChainLink.class, first, MethodHandles.lookup());
+        assertEquals(LENGTH, found.size());
+    }
+
+    @Test
+    void WhenSeek_GivenSchool_ThenFindSameAsRecursiveSeek() throws IntrospectionException {
+        School school = schoolGenerator.generate();
+        schoolGenerator.addStudents(school, 20);
+        schoolGenerator.addTeachers(school, 5);
+
+        Set<ComplexHuman> expected = new BeanIntrospector().seek(ComplexHuman.class, school, MethodHandles.lookup());
+        Set<ComplexHuman> found = new IterativeIntrospector().seek(ComplexHuman.class, school, MethodHandles.lookup());
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void WhenSeek_GivenMaxDepth_ThenFindSameAsRecursiveSeek() throws IntrospectionException {
+        var first = new ChainLink(null);
+        var current = first;
+        for (int i = 1; i < 10; i++) {
+            current = new ChainLink(current);
+        }
+        var settings = IntrospectionSettingsBuilder.anIntrospectionSettings().withMaxDepth(4).build();
+
+        Set<ChainLink> expected = new BeanIntrospector(settings).seek(ChainLink.class, first, MethodHandles.lookup());
+        Set<ChainLink> found = new IterativeIntrospector(settings).seek(ChainLink.class, first, MethodHandles.lookup());
+        assertEquals(4, found.size());
+        assertEquals(expected, found);
+    }
+}
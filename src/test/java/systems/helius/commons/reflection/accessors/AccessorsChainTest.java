@@ -0,0 +1,202 @@
+package systems.helius.commons.reflection.accessors;
+
+import jakarta.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import systems.helius.commons.reflection.ClassInspector;
+import systems.helius.commons.reflection.IntrospectionContext;
+import systems.helius.commons.reflection.IntrospectionSettings;
+import systems.helius.commons.reflection.MapTraversalMode;
+import systems.helius.commons.types.Foo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessorsChainTest {
+
+    /**
+     * Accepts Foo instances and counts how many times it was asked.
+     */
+    private static class CountingFooAccessor extends BaseContentAccessor {
+        int asked;
+
+        CountingFooAccessor(int priority) {
+            super(priority);
+        }
+
+        @Override
+        public boolean acceptsType(Class<?> type, IntrospectionSettings settings) {
+            asked++;
+            return type == Foo.class;
+        }
+
+        @Override
+        public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
+            return List.of(new Content("intercepted", holdingField));
+        }
+    }
+
+    /**
+     * Accepts the Foo instances whose a is negative, the way accessors were written before they could accept whole classes.
+     */
+    private static class NegativeFooAccessor extends BaseContentAccessor {
+        NegativeFooAccessor() {
+            super(AccessorsChain.DEFAULT_PRIORITY);
+        }
+
+        @Override
+        public boolean accepts(Object current, @Nullable Field holdingField, IntrospectionSettings settings) {
+            return current instanceof Foo foo && foo.getA() < 0;
+        }
+
+        @Override
+        public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
+            return List.of(new Content("intercepted", holdingField));
+        }
+    }
+
+    private static class Bag implements Iterable<String> {
+        private final List<String> items = List.of("a", "b", "c");
+
+        @Override
+        public Iterator<String> iterator() {
+            return items.iterator();
+        }
+    }
+
+    private static class Directory {
+        private final Map<Integer, String> namesById = new HashMap<>(Map.of(1, "Alice", 2, "Bob"));
+    }
+
+    @Test
+    void AccessorsChain_GivenAccessorsInAnyOrder_ThenOrderByPriority() {
+        var handles = new FieldHandlesAccessor(new ClassInspector());
+        var iterative = new IterativeAccessor();
+        var foo = new CountingFooAccessor(IterativeAccessor.PRIORITY + 1);
+        var chain = new AccessorsChain(List.of(handles, iterative, foo));
+        assertEquals(List.of(foo, iterative, handles), chain.getAccessors());
+    }
+
+    @Test
+    void discoverAccessors_ThenFindTheSpecializedAccessors() {
+        List<Class<?>> discovered = AccessorsChain.discoverAccessors().stream().<Class<?>>map(Object::getClass).toList();
+        assertTrue(discovered.containsAll(List.of(RandomAccessListAccessor.class,
+                OptionalAccessor.class, AtomicReferenceAccessor.class)));
+    }
+
+    @Test
+    void discoverAccessors_WhenCalledTwice_ThenLoadTheServicesOnce() {
+        List<ContentAccessor> first = AccessorsChain.discoverAccessors();
+        List<ContentAccessor> second = AccessorsChain.discoverAccessors();
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+        }
+    }
+
+    @Test
+    void getAccessorOf_GivenLists_ThenOnlyIndexTheListsThatCannotShrinkWhileRead() {
+        var chain = new AccessorsChain(new ClassInspector());
+        var settings = new IntrospectionSettings();
+        assertInstanceOf(RandomAccessListAccessor.class, chain.getAccessorOf(ArrayList.class, settings));
+        assertInstanceOf(RandomAccessListAccessor.class, chain.getAccessorOf(List.of(1, 2, 3).getClass(), settings));
+        assertInstanceOf(IterativeAccessor.class, chain.getAccessorOf(CopyOnWriteArrayList.class, settings));
+        assertInstanceOf(IterativeAccessor.class, chain.getAccessorOf(Collections.synchronizedList(new ArrayList<>()).getClass(), settings));
+        assertInstanceOf(IterativeAccessor.class, chain.getAccessorOf(Vector.class, settings));
+    }
+
+    @Test
+    void extract_GivenHashMap_ThenPushEachKeyBeforeItsValue() throws ChainComponentException {
+        var chain = new AccessorsChain(new ClassInspector());
+        var context = new IntrospectionContext<>(String.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+        var map = new LinkedHashMap<String, String>();
+        map.put("a", "1");
+        map.put("b", "2");
+        assertEquals(List.of("a", "1", "b", "2"),
+                chain.extract(map, null, context, new IntrospectionSettings()).stream().map(Content::value).toList());
+    }
+
+    @Test
+    void extract_GivenAutoMapTraversal_ThenSkipThePartsThatCannotHoldTheTarget() throws ChainComponentException, NoSuchFieldException {
+        var chain = new AccessorsChain(new ClassInspector());
+        var settings = new IntrospectionSettings();
+        var directory = new Directory();
+        Field holdingField = Directory.class.getDeclaredField("namesById");
+
+        var stringContext = new IntrospectionContext<>(String.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+        assertEquals(Set.of("Alice", "Bob"), chain.extract(directory.namesById, holdingField, stringContext, settings).stream()
+                .map(Content::value).collect(Collectors.toSet()));
+        var integerContext = new IntrospectionContext<>(Integer.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+        assertEquals(Set.of(1, 2), chain.extract(directory.namesById, holdingField, integerContext, settings).stream()
+                .map(Content::value).collect(Collectors.toSet()));
+        var objectContext = new IntrospectionContext<>(Object.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+        assertEquals(4, chain.extract(directory.namesById, holdingField, objectContext, settings).size());
+
+        settings.setMapTraversalMode(MapTraversalMode.BOTH);
+        assertEquals(4, chain.extract(directory.namesById, holdingField, stringContext, settings).size());
+    }
+
+    @Test
+    void extractElementInto_GivenMapReachedThroughAnotherMap_ThenTraverseAllOfItWithTheContainerField() throws Exception {
+        var chain = new AccessorsChain(List.of(new IterativeAccessor()));
+        var settings = new IntrospectionSettings();
+        Field holdingField = Directory.class.getDeclaredField("namesById");
+        var fooContext = new IntrospectionContext<>(Foo.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+        // Nested in the values of namesById, as if it had been declared as a Map<Integer, Object>
+        Map<Integer, Integer> nested = Map.of(3, 4);
+
+        List<Content> pushed = new ArrayList<>();
+        chain.extractInto(nested, holdingField, fooContext, settings, (value, field) -> pushed.add(new Content(value, field)));
+        assertEquals(List.of(), pushed, "The generic arguments of the field describe the map it holds");
+
+        chain.extractElementInto(nested, holdingField, fooContext, settings, (value, field) -> pushed.add(new Content(value, field)));
+        assertEquals(List.of(new Content(3, holdingField), new Content(4, holdingField)), pushed);
+    }
+
+    @Test
+    void extract_GivenManyInstancesOfAClass_ThenResolveTheAccessorsOnce() throws ChainComponentException {
+        var foo = new CountingFooAccessor(AccessorsChain.DEFAULT_PRIORITY);
+        var chain = new AccessorsChain(List.of(new IterativeAccessor(), foo, new FieldHandlesAccessor(new ClassInspector())));
+        var settings = new IntrospectionSettings();
+        var context = new IntrospectionContext<>(String.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+
+        for (int i = 0; i < 10; i++) {
+            Collection<Content> content = chain.extract(new Foo(i, "Hello"), null, context, settings);
+            assertEquals(List.of("intercepted"), content.stream().map(Content::value).toList());
+        }
+        assertEquals(1, foo.asked);
+
+        // A different combination of dispatch flags is resolved on its own
+        settings.setDetailledMapCheck(true);
+        chain.extract(new Foo(0, "Hello"), null, context, settings);
+        assertEquals(2, foo.asked);
+    }
+
+    @Test
+    void extract_GivenAccessorOverridingAccepts_ThenAskItForEachObject() throws ChainComponentException {
+        var chain = new AccessorsChain(List.of(new NegativeFooAccessor(), new FieldHandlesAccessor(new ClassInspector())));
+        var settings = new IntrospectionSettings();
+        var context = new IntrospectionContext<>(String.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+
+        assertEquals(List.of("intercepted"),
+                chain.extract(new Foo(-1, "Hello"), null, context, settings).stream().map(Content::value).toList());
+        assertEquals(List.of(2, "Hello"),
+                chain.extract(new Foo(2, "Hello"), null, context, settings).stream().map(Content::value).toList());
+    }
+
+    @Test
+    void extract_GivenIterableAndDetailledIterableCheck_ThenReadTheFields() throws ChainComponentException {
+        var chain = new AccessorsChain(new ClassInspector());
+        var settings = new IntrospectionSettings();
+        var context = new IntrospectionContext<>(String.class, MethodHandles.lookup(), new HashSet<>(), new HashSet<>(), chain);
+        var bag = new Bag();
+        assertEquals(3, chain.extract(bag, null, context, settings).size());
+
+        settings.setDetailledIterableCheck(true);
+        assertEquals(List.of(bag.items), chain.extract(bag, null, context, settings).stream().map(Content::value).toList());
+    }
+}
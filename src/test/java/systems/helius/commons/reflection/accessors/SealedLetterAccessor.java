@@ -0,0 +1,38 @@
+package systems.helius.commons.reflection.accessors;
+
+import jakarta.annotation.Nullable;
+import systems.helius.commons.reflection.IntrospectionContext;
+import systems.helius.commons.reflection.IntrospectionSettings;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Registered as a service for the tests: only shows the recipient of the {@link Letter}s, never their text.
+ */
+public class SealedLetterAccessor extends BaseContentAccessor {
+    public static final class Letter {
+        private final String recipient;
+        private final String text;
+
+        public Letter(String recipient, String text) {
+            this.recipient = recipient;
+            this.text = text;
+        }
+    }
+
+    public SealedLetterAccessor() {
+        super(RandomAccessListAccessor.PRIORITY);
+    }
+
+    @Override
+    public boolean acceptsType(Class<?> type, IntrospectionSettings settings) {
+        return type == Letter.class;
+    }
+
+    @Override
+    public Collection<Content> extract(Object current, @Nullable Field holdingField, IntrospectionContext<?> context, IntrospectionSettings settings) {
+        return List.of(new Content(((Letter) current).recipient, holdingField));
+    }
+}
@@ -0,0 +1,19 @@
+package systems.helius.commons.types;
+
+import systems.helius.commons.annotations.Introspectable;
+
+@Introspectable
+public class IntrospectableBean extends Superclass {
+    String name;
+    protected int count;
+    Foo foo;
+
+    public IntrospectableBean() {}
+
+    public IntrospectableBean(int superclassField, String name, int count, Foo foo) {
+        super(superclassField);
+        this.name = name;
+        this.count = count;
+        this.foo = foo;
+    }
+}